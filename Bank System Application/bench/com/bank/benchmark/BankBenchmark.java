@@ -0,0 +1,193 @@
+package com.bank.benchmark;
+
+import com.bank.service.BankService;
+import com.bank.service.BankWithdrawalLimitResetter;
+import com.bank.storage.BankStorage;
+import com.bank.storage.BankStorageEngine;
+import com.bank.storage.InMemoryBankStorage;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// Measures the throughput and the latency percentiles of every BankBenchmarkScenario at 1, 2, 4, ... up to
+// bank.benchmark.threads threads. The in-memory storage is used unless bank.storage=jdbc is given, in which
+// case the configured MySQL database is seeded and measured instead. Each in-memory run starts from a
+// freshly seeded storage so the history grown by one run doesn't slow down the next. The velocity rules are
+// off unless bank.velocity.rules is given, the accounts are still tracked so their cost is measured. The
+// passwords are hashed with 1000 iterations unless bank.password.iterations is given, or seeding the users
+// before every run would take minutes; give the production cost to measure the login as it is.
+//
+//   java -Dbank.benchmark.threads=8 -cp "out/production/Bank System Application" \
+//        com.bank.benchmark.BankBenchmark [deposit|withdrawal|transfer|login|history ...]
+public class BankBenchmark {
+    private BankBenchmark() {
+    }
+
+    private static final int maximumThreads = Integer.getInteger("bank.benchmark.threads",
+            Runtime.getRuntime().availableProcessors());
+    private static final long warmupMillis = Long.getLong("bank.benchmark.warmupMillis", 1_000L);
+    private static final long measurementMillis = Long.getLong("bank.benchmark.measurementMillis", 3_000L);
+    private static final int users = Integer.getInteger("bank.benchmark.users", 1_000);
+    private static final int historyPerUser = Integer.getInteger("bank.benchmark.historyPerUser", 25);
+    private static final String output = System.getProperty("bank.benchmark.output");
+    private static final boolean inMemory = !System.getProperty("bank.storage", "memory").equals("jdbc");
+
+    public static void main(String[] args) throws Exception {
+        // a few benchmark accounts take every operation, the default rules would block nearly all of them
+        System.getProperties().putIfAbsent("bank.velocity.rules", "");
+        System.getProperties().putIfAbsent("bank.password.iterations", "1000");
+        List<BankBenchmarkScenario> scenarios = new ArrayList<>();
+        for (String arg : args) {
+            scenarios.add(BankBenchmarkScenario.valueOf(arg.toUpperCase(Locale.ROOT)));
+        }
+        if (scenarios.isEmpty()) {
+            scenarios.addAll(List.of(BankBenchmarkScenario.values()));
+        }
+
+        StringBuilder report = new StringBuilder();
+        report.append(String.format("# %s, %s storage, Java %s, %d cores, %d users, %d ms warmup, %d ms measured%n",
+                LocalDate.now(), inMemory ? "in-memory" : "jdbc", Runtime.version(),
+                Runtime.getRuntime().availableProcessors(), users, warmupMillis, measurementMillis));
+        report.append(String.format("%-10s %7s %12s %9s %9s %9s %9s %9s%n", "scenario", "threads", "ops/s",
+                "p50 us", "p90 us", "p99 us", "p99.9 us", "max us"));
+        System.out.print(report);
+
+        if (inMemory) {
+            // every run starts an in-memory storage of its own
+            BankWithdrawalLimitResetter.start();
+        } else {
+            BankService.start();
+        }
+        try {
+            for (BankBenchmarkScenario scenario : scenarios) {
+                for (int threads : threadCounts()) {
+                    String line = run(scenario, threads);
+                    System.out.print(line);
+                    report.append(line);
+                }
+            }
+        } finally {
+            BankService.shutdown();
+        }
+        if (output != null) {
+            Files.writeString(Path.of(output), report, StandardCharsets.UTF_8);
+        }
+    }
+
+    private static List<Integer> threadCounts() {
+        List<Integer> threadCounts = new ArrayList<>();
+        for (int threads = 1; threads < maximumThreads; threads *= 2) {
+            threadCounts.add(threads);
+        }
+        threadCounts.add(maximumThreads);
+        return threadCounts;
+    }
+
+    private static String run(BankBenchmarkScenario scenario, int threads) throws SQLException,
+            InterruptedException {
+        if (inMemory) {
+            BankStorageEngine.get().shutdown();
+            BankStorage storage = new InMemoryBankStorage();
+            storage.start();
+            BankStorageEngine.use(storage);
+        }
+        BankBenchmarkFixture fixture = BankBenchmarkFixture.seed(users, historyPerUser);
+
+        BankBenchmarkWorker[] workers = new BankBenchmarkWorker[threads];
+        CountDownLatch started = new CountDownLatch(threads);
+        for (int i = 0; i < threads; ++i) {
+            workers[i] = new BankBenchmarkWorker(scenario, fixture, started);
+            workers[i].start();
+        }
+        started.await();
+        Thread.sleep(warmupMillis);
+        for (BankBenchmarkWorker worker : workers) {
+            worker.measure();
+        }
+        long measuredFrom = System.nanoTime();
+        Thread.sleep(measurementMillis);
+        for (BankBenchmarkWorker worker : workers) {
+            worker.finish();
+        }
+        long elapsedNanos = System.nanoTime() - measuredFrom;
+
+        BankLatencyHistogram histogram = new BankLatencyHistogram();
+        for (BankBenchmarkWorker worker : workers) {
+            worker.join();
+            if (worker.getFailure() != null) {
+                throw new IllegalStateException(scenario + " failed", worker.getFailure());
+            }
+            histogram.add(worker.getHistogram());
+        }
+        double operationsPerSecond = histogram.getTotalCount() / (elapsedNanos / 1e9);
+        return String.format(Locale.ROOT, "%-10s %7d %12.0f %9.1f %9.1f %9.1f %9.1f %9.1f%n", scenario.name(),
+                threads, operationsPerSecond, micros(histogram.percentile(50)), micros(histogram.percentile(90)),
+                micros(histogram.percentile(99)), micros(histogram.percentile(99.9)),
+                micros(histogram.getMaximum()));
+    }
+
+    private static double micros(long nanos) {
+        return nanos / (double) TimeUnit.MICROSECONDS.toNanos(1);
+    }
+
+    private static class BankBenchmarkWorker extends Thread {
+        private final BankBenchmarkScenario scenario;
+        private final BankBenchmarkFixture fixture;
+        private final CountDownLatch started;
+        private final BankLatencyHistogram histogram = new BankLatencyHistogram();
+        private volatile boolean measuring;
+        private volatile boolean finished;
+        private Exception failure;
+
+        private BankBenchmarkWorker(BankBenchmarkScenario scenario, BankBenchmarkFixture fixture,
+                                    CountDownLatch started) {
+            super("bank-benchmark-" + scenario.name().toLowerCase(Locale.ROOT));
+            this.scenario = scenario;
+            this.fixture = fixture;
+            this.started = started;
+            setDaemon(true);
+        }
+
+        @Override
+        public void run() {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            started.countDown();
+            try {
+                while (!finished) {
+                    long startedAt = System.nanoTime();
+                    scenario.run(fixture, random);
+                    if (measuring) {
+                        histogram.record(System.nanoTime() - startedAt);
+                    }
+                }
+            } catch (Exception e) {
+                failure = e;
+            }
+        }
+
+        private void measure() {
+            measuring = true;
+        }
+
+        private void finish() {
+            finished = true;
+        }
+
+        private BankLatencyHistogram getHistogram() {
+            return histogram;
+        }
+
+        private Exception getFailure() {
+            return failure;
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.bank.benchmark;
+
+import com.bank.model.BankAccountStatus;
+import com.bank.model.BankAccountType;
+import com.bank.model.BankDepositModel;
+import com.bank.model.BankOpenAccountModel;
+import com.bank.model.BankRegistrationModel;
+import com.bank.model.Currency;
+import com.bank.model.User;
+import com.bank.model.UserBankAccount;
+import com.bank.storage.BankStorage;
+import com.bank.storage.BankStorageEngine;
+
+import java.sql.SQLException;
+import java.util.List;
+
+// The users and active accounts the benchmarks pick from. Seeding goes through the same models as the
+// application, and users that already exist (a reused database) are only looked up again.
+public class BankBenchmarkFixture {
+    static final String password = "benchmark";
+    private static final int openingBalance = 1_000_000;
+
+    private final User[] users;
+    private final UserBankAccount[] accounts;
+
+    private BankBenchmarkFixture(User[] users, UserBankAccount[] accounts) {
+        this.users = users;
+        this.accounts = accounts;
+    }
+
+    public static BankBenchmarkFixture seed(int userCount, int historyPerUser) throws SQLException {
+        BankStorage storage = BankStorageEngine.get();
+        User[] users = new User[userCount];
+        UserBankAccount[] accounts = new UserBankAccount[userCount];
+        for (int i = 0; i < userCount; ++i) {
+            String username = "benchmark" + i;
+            User user = new User(username, password, "Bench", "Mark" + i, "0100000" + i,
+                    "Benchmark street " + i, username + "@benchmark.local");
+            if (storage.users().findPassword(username) == null) {
+                BankRegistrationModel.saveNewUser(user);
+            }
+            // read past the account cache, it may still hold accounts of an earlier storage
+            List<UserBankAccount> userAccounts = storage.accounts().findByUsername(username);
+            if (userAccounts.isEmpty()) {
+                BankOpenAccountModel.saveNewAccount(username, new UserBankAccount(username, null,
+                        BankAccountType.values()[0], Currency.values()[0], null, openingBalance, null, null));
+                userAccounts = storage.accounts().findByUsername(username);
+                UserBankAccount account = userAccounts.get(0);
+                storage.accounts().updateStatus(account.getBankAccountID(), BankAccountStatus.ACTIVE);
+                for (int entry = 0; entry < historyPerUser; ++entry) {
+                    BankDepositModel.deposit(username, account.getBankAccountID(), 1);
+                }
+                userAccounts = storage.accounts().findByUsername(username);
+            }
+            users[i] = user;
+            accounts[i] = userAccounts.get(0);
+        }
+        return new BankBenchmarkFixture(users, accounts);
+    }
+
+    public int size() {
+        return users.length;
+    }
+
+    public User user(int index) {
+        return users[index];
+    }
+
+    public UserBankAccount account(int index) {
+        return accounts[index];
+    }
+}
@@ -0,0 +1,78 @@
+package com.bank.benchmark;
+
+import com.bank.model.BankDepositModel;
+import com.bank.model.BankLoginModel;
+import com.bank.model.BankLogsModel;
+import com.bank.model.BankTransactionsModel;
+import com.bank.model.BankWithdrawalModel;
+import com.bank.model.Log;
+import com.bank.model.Transaction;
+import com.bank.model.User;
+import com.bank.model.UserBankAccount;
+import com.bank.service.BankTransferEngine;
+
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+// One operation of each hot path, with the arguments picked at random from the fixture.
+public enum BankBenchmarkScenario {
+    DEPOSIT {
+        @Override
+        void run(BankBenchmarkFixture fixture, ThreadLocalRandom random) throws SQLException {
+            UserBankAccount account = fixture.account(random.nextInt(fixture.size()));
+            BankDepositModel.deposit(account.getUsername(), account.getBankAccountID(), amount(random));
+        }
+    },
+    WITHDRAWAL {
+        @Override
+        void run(BankBenchmarkFixture fixture, ThreadLocalRandom random) throws SQLException {
+            UserBankAccount account = fixture.account(random.nextInt(fixture.size()));
+            BankWithdrawalModel.withdraw(account.getUsername(), account.getBankAccountID(), amount(random));
+        }
+    },
+    TRANSFER {
+        @Override
+        void run(BankBenchmarkFixture fixture, ThreadLocalRandom random) throws SQLException {
+            int from = random.nextInt(fixture.size());
+            int to = (from + 1 + random.nextInt(fixture.size() - 1)) % fixture.size();
+            BankTransferEngine.transfer(fixture.user(from).getUsername(), fixture.account(from).getBankAccountID(),
+                    fixture.account(to).getBankAccountID(), amount(random));
+        }
+    },
+    LOGIN {
+        @Override
+        void run(BankBenchmarkFixture fixture, ThreadLocalRandom random) throws SQLException {
+            User user = fixture.user(random.nextInt(fixture.size()));
+            BankLoginModel.authenticate(user.getUsername(), user.getPassword());
+        }
+    },
+    // the first two pages of an account's transactions and of the user's logs, as a user browsing the history
+    // would
+    HISTORY {
+        @Override
+        void run(BankBenchmarkFixture fixture, ThreadLocalRandom random) throws SQLException {
+            int index = random.nextInt(fixture.size());
+            String username = fixture.user(index).getUsername();
+            Integer bankAccountID = fixture.account(index).getBankAccountID();
+            List<Transaction> transactions = BankTransactionsModel.collectAccountTransactions(bankAccountID,
+                    pageSize, null);
+            if (transactions.size() == pageSize) {
+                BankTransactionsModel.collectAccountTransactions(bankAccountID, pageSize,
+                        transactions.get(pageSize - 1).getId());
+            }
+            List<Log> logs = BankLogsModel.collectLogs(username, pageSize, null);
+            if (logs.size() == pageSize) {
+                BankLogsModel.collectLogs(username, pageSize, logs.get(pageSize - 1).getId());
+            }
+        }
+    };
+
+    private static final int pageSize = 10;
+
+    abstract void run(BankBenchmarkFixture fixture, ThreadLocalRandom random) throws SQLException;
+
+    private static int amount(ThreadLocalRandom random) {
+        return 1 + random.nextInt(100);
+    }
+}
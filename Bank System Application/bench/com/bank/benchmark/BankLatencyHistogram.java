@@ -0,0 +1,62 @@
+package com.bank.benchmark;
+
+// Log-linear histogram of latencies in nanoseconds: every power of two is split into 16 buckets, so a
+// recorded value is reported within 1/16 of itself while the histogram stays a fixed 1 KiB of counters
+// no matter how many operations are measured. Only the thread that owns it records into it.
+public class BankLatencyHistogram {
+    private static final int subBucketBits = 4;
+    private static final int subBucketCount = 1 << subBucketBits;
+
+    private final long[] counts = new long[64 * subBucketCount];
+    private long totalCount;
+    private long maximum;
+
+    public void record(long nanos) {
+        long value = Math.max(nanos, 1);
+        ++counts[bucketOf(value)];
+        ++totalCount;
+        maximum = Math.max(maximum, value);
+    }
+
+    public void add(BankLatencyHistogram other) {
+        for (int i = 0; i < counts.length; ++i) {
+            counts[i] += other.counts[i];
+        }
+        totalCount += other.totalCount;
+        maximum = Math.max(maximum, other.maximum);
+    }
+
+    public long getTotalCount() {
+        return totalCount;
+    }
+
+    public long getMaximum() {
+        return maximum;
+    }
+
+    // the upper bound of the bucket holding the given percentile, 0 when nothing was recorded
+    public long percentile(double percentile) {
+        if (totalCount == 0) return 0;
+        long rank = Math.max(1, (long) Math.ceil(totalCount * percentile / 100));
+        long seen = 0;
+        for (int bucket = 0; bucket < counts.length; ++bucket) {
+            seen += counts[bucket];
+            if (seen >= rank) return Math.min(upperBoundOf(bucket), maximum);
+        }
+        return maximum;
+    }
+
+    private static int bucketOf(long value) {
+        int magnitude = 63 - Long.numberOfLeadingZeros(value);
+        if (magnitude < subBucketBits) return (int) value;
+        int subBucket = (int) (value >>> (magnitude - subBucketBits)) & (subBucketCount - 1);
+        return (magnitude - subBucketBits + 1) * subBucketCount + subBucket;
+    }
+
+    private static long upperBoundOf(int bucket) {
+        if (bucket < subBucketCount) return bucket;
+        int magnitude = bucket / subBucketCount + subBucketBits - 1;
+        long subBucket = bucket % subBucketCount;
+        return ((subBucketCount + subBucket + 1) << (magnitude - subBucketBits)) - 1;
+    }
+}
@@ -1,14 +1,17 @@
 import com.bank.controller.BankApplication;
-import com.bank.model.BankUtil;
+import com.bank.controller.BankServer;
 
-import java.sql.ResultSet;
+import java.io.IOException;
 import java.sql.SQLException;
-import java.sql.Statement;
 
 public class Main {
-    public static void main(String[] args) throws SQLException {
+    public static void main(String[] args) throws SQLException, IOException {
+        // --server serves many sessions over TCP instead of the single console user
+        if (args.length > 0 && args[0].equals("--server")) {
+            BankServer.run();
+            return;
+        }
         BankApplication app = new BankApplication();
         app.run();
     }
 }
-
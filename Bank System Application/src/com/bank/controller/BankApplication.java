@@ -1,6 +1,7 @@
 package com.bank.controller;
 
-import com.bank.model.BankUtil;
+import com.bank.model.BankSession;
+import com.bank.service.BankService;
 import com.bank.view.BankApplicationView;
 
 import java.sql.SQLException;
@@ -13,12 +14,21 @@ public class BankApplication {
     }
 
     public void run() throws SQLException {
+        BankService.start();
+        try {
+            runSession();
+        } finally {
+            BankSession.current().close();
+            BankService.shutdown();
+        }
+    }
+
+    // the main window of one user, on whatever session the calling thread has
+    public void runSession() throws SQLException {
         do {
             BankApplicationView.displayMainWindow();
             takeMainWindowOption();
         } while (state);
-        BankUtil.scanner.close();
-        BankUtil.connection.close();
     }
 
     private void takeMainWindowOption() throws SQLException {
@@ -1,6 +1,9 @@
 package com.bank.controller;
 
-import com.bank.model.*;
+import com.bank.model.BankUtil;
+import com.bank.model.UserBankAccount;
+import com.bank.service.BankOperationResult;
+import com.bank.service.BankService;
 import com.bank.view.BankDepositView;
 
 import java.sql.SQLException;
@@ -13,7 +16,9 @@ public class BankDeposit {
         Integer addedMoney = takeMoneyToDeposit();
         // if user want to exit this action
         if (addedMoney.equals(-1)) return;
-        BankDepositModel.deposit(addedMoney, userBankAccount);
+        BankOperationResult result = BankService.deposit(userBankAccount.getUsername(),
+                userBankAccount.getBankAccountID(), addedMoney);
+        if (!result.isOk()) BankUtil.createMessage(result.getStatus().message);
     }
 
     private static Integer takeMoneyToDeposit() {
@@ -0,0 +1,49 @@
+package com.bank.controller;
+
+import com.bank.model.BankExportFormat;
+import com.bank.model.BankExportReport;
+import com.bank.model.BankExportTransactionsModel;
+import com.bank.model.UserBankAccount;
+import com.bank.view.BankExportTransactionsView;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.sql.SQLException;
+
+public class BankExportTransactions {
+    private BankExportTransactions() {
+    }
+
+    protected static void run(UserBankAccount userBankAccount) throws SQLException {
+        Integer formatID = takeFormat();
+        // if user want to exit this action
+        if (formatID.equals(-1)) return;
+        BankExportFormat format = BankExportFormat.typeInIndex(formatID - 1);
+        Path file = takeFile(userBankAccount.getUsername(), format);
+        BankExportTransactionsModel.insertLog(userBankAccount.getUsername());
+        try {
+            BankExportReport report = BankExportTransactionsModel.exportTransactions(userBankAccount.getUsername(),
+                    format, file);
+            BankExportTransactionsView.showReport(report);
+        } catch (IOException e) {
+            BankExportTransactionsView.showFailedExport(e.getMessage());
+        }
+    }
+
+    private static Integer takeFormat() {
+        BankExportTransactionsView.showFormats();
+        String formatID;
+        do {
+            formatID = BankExportTransactionsView.takeFormat();
+            // if user want to exit this action
+            if (formatID.equals("-1")) return -1;
+        } while (!formatID.matches("[1-2]"));
+        return Integer.valueOf(formatID);
+    }
+
+    private static Path takeFile(String username, BankExportFormat format) {
+        String defaultFilePath = "transactions-" + username + "." + format.extension;
+        String filePath = BankExportTransactionsView.takeFilePath(defaultFilePath);
+        return Path.of(filePath.isBlank() ? defaultFilePath : filePath);
+    }
+}
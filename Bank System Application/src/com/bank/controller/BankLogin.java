@@ -1,8 +1,9 @@
 package com.bank.controller;
 
+import com.bank.model.BankSession;
 import com.bank.model.User;
+import com.bank.service.BankService;
 import com.bank.view.BankLoginView;
-import com.bank.model.BankLoginModel;
 import java.sql.SQLException;
 
 public class BankLogin {
@@ -17,11 +18,10 @@ public class BankLogin {
     }
 
     private static void checkLogin(String username, String password) throws SQLException {
-        String resultPassword = BankLoginModel.getPasswordOf(username);
-        if (resultPassword == null || !resultPassword.equals(password)) {
+        User user = BankService.login(username, password, BankSession.current().getClient());
+        if (user == null) {
             BankLoginView.showWrongPassword();
         } else {
-            User user = BankLoginModel.collectUserData(username, password);
             BankUserProfile.run(user);
         }
     }
@@ -1,13 +1,12 @@
 package com.bank.controller;
 
-import com.bank.model.ActivityType;
-import com.bank.model.BankLogsModel;
 import com.bank.model.Log;
 import com.bank.model.User;
+import com.bank.service.BankPage;
+import com.bank.service.BankService;
 import com.bank.view.BankLogsView;
 
 import java.sql.SQLException;
-import java.util.List;
 
 public class BankLogs {
     private static final Integer limitNumber = 5;
@@ -17,19 +16,14 @@ public class BankLogs {
 
     protected static void run(User user) throws SQLException {
         boolean wantMore;
-        Integer numberOfLogs = BankLogsModel.getNumberOfLogs(user);
-        int offsetNumber = 0;
+        Integer lastSeenLogID = null;
         do {
-            List<Log> logs = BankLogsModel.collectLogs(user.getUsername(), limitNumber, offsetNumber);
-            BankLogsView.showLogs(logs);
-            offsetNumber += 5;
+            BankPage<Log> logs = BankService.logs(user.getUsername(), limitNumber, lastSeenLogID);
+            BankLogsView.showLogs(logs.getItems());
+            if (!logs.hasNext()) break;
+            lastSeenLogID = logs.getNextBeforeID();
             wantMore = checkWantMoreLogs();
-        } while (wantMore && offsetNumber <= numberOfLogs);
-    }
-
-    public static ActivityType getActivityType(Integer activityID) {
-        ActivityType[] activityTypes = ActivityType.values();
-        return activityTypes[activityID - 1];
+        } while (wantMore);
     }
 
     private static boolean checkWantMoreLogs() {
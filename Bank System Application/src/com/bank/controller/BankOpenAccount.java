@@ -1,6 +1,11 @@
 package com.bank.controller;
 
-import com.bank.model.*;
+import com.bank.model.BankAccountType;
+import com.bank.model.BankUtil;
+import com.bank.model.Currency;
+import com.bank.model.User;
+import com.bank.service.BankOperationResult;
+import com.bank.service.BankService;
 import com.bank.view.BankOpenAccountView;
 
 import java.sql.SQLException;
@@ -10,21 +15,17 @@ public class BankOpenAccount {
     }
 
     protected static void run(User user) throws SQLException {
-        UserBankAccount newAccount;
-        int typeID, currencyID, statusID, balance;
+        int typeID, currencyID, balance;
         BankAccountType bankAccountType;
         Currency currencyType;
-        BankAccountStatus bankAccountStatusType;
         typeID = takeAccountType();
         bankAccountType = BankAccountType.typeInIndex(typeID - 1);
         currencyID = takeAccountCurrency();
         currencyType = Currency.typeInIndex(currencyID - 1);
-        statusID = BankAccountStatus.PENDING.ordinal() + 1;
-        bankAccountStatusType = BankAccountStatus.typeInIndex(statusID - 1);
         balance = takeBalance(bankAccountType);
-        newAccount = new UserBankAccount(user.getUsername(), null, bankAccountType, currencyType,
-                bankAccountStatusType, balance, null, null);
-        BankOpenAccountModel.saveNewAccount(user, newAccount);
+        BankOperationResult result = BankService.openAccount(user.getUsername(), bankAccountType, currencyType,
+                balance);
+        if (!result.isOk()) BankUtil.createMessage(result.getStatus().message);
     }
 
     private static Integer takeAccountType() {
@@ -0,0 +1,130 @@
+package com.bank.controller;
+
+import com.bank.model.BankSession;
+import com.bank.service.BankService;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+// Serves the console application over TCP: every connection gets its own session and runs the main window
+// on its own virtual thread, which is parked and not holding a platform thread while it waits for the user
+// to type. A session only holds a pooled connection while one of its operations runs.
+//
+//   java Main --server        then e.g.   nc localhost 5050
+public class BankServer {
+    private BankServer() {
+    }
+
+    private static final Logger logger = Logger.getLogger(BankServer.class.getName());
+
+    private static final int port = Integer.getInteger("bank.server.port", 5050);
+    private static final int maximumSessions = Integer.getInteger("bank.server.maximumSessions", 10_000);
+    private static final int idleTimeoutMillis = Integer.getInteger("bank.server.idleTimeoutMillis", 15 * 60_000);
+
+    private static final Set<Socket> sessions = ConcurrentHashMap.newKeySet();
+    private static final Semaphore sessionPermits = new Semaphore(maximumSessions);
+
+    // serves until the JVM is asked to stop, then closes every session and the storage
+    public static void run() throws SQLException, IOException {
+        BankService.start();
+        CountDownLatch stopped = new CountDownLatch(1);
+        try (ServerSocket serverSocket = new ServerSocket(port)) {
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                closeQuietly(serverSocket);
+                awaitQuietly(stopped);
+            }, "bank-server-shutdown"));
+            logger.info("Serving bank sessions on port " + serverSocket.getLocalPort());
+            try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+                acceptSessions(serverSocket, executor);
+                for (Socket socket : sessions) {
+                    closeQuietly(socket);
+                }
+            }
+        } finally {
+            BankService.shutdown();
+            stopped.countDown();
+        }
+    }
+
+    public static int getOpenSessions() {
+        return sessions.size();
+    }
+
+    private static void acceptSessions(ServerSocket serverSocket, ExecutorService executor) throws IOException {
+        while (!serverSocket.isClosed()) {
+            Socket socket;
+            try {
+                socket = serverSocket.accept();
+            } catch (SocketException e) {
+                if (serverSocket.isClosed()) return;
+                throw e;
+            }
+            if (!sessionPermits.tryAcquire()) {
+                rejectBusy(socket);
+                continue;
+            }
+            sessions.add(socket);
+            executor.submit(() -> serve(socket));
+        }
+    }
+
+    private static void serve(Socket socket) {
+        try {
+            socket.setSoTimeout(idleTimeoutMillis);
+            PrintStream out = new PrintStream(new BufferedOutputStream(socket.getOutputStream()), false,
+                    StandardCharsets.UTF_8);
+            BankSession session = BankSession.open(socket.getInputStream(), out, socket);
+            try {
+                new BankApplication().runSession();
+            } finally {
+                session.close();
+            }
+        } catch (NoSuchElementException | IOException e) {
+            // the client disconnected or stayed idle longer than the timeout
+        } catch (SQLException | RuntimeException e) {
+            logger.log(Level.WARNING, "Session of " + socket.getRemoteSocketAddress() + " failed", e);
+        } finally {
+            closeQuietly(socket);
+            sessions.remove(socket);
+            sessionPermits.release();
+        }
+    }
+
+    private static void rejectBusy(Socket socket) {
+        try (socket) {
+            socket.getOutputStream().write("The bank is busy, try again later\n".getBytes(StandardCharsets.UTF_8));
+        } catch (IOException ignored) {
+        }
+    }
+
+    private static void closeQuietly(Closeable closeable) {
+        try {
+            closeable.close();
+        } catch (IOException ignored) {
+        }
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -3,10 +3,11 @@ package com.bank.controller;
 import com.bank.model.BankTransactionsModel;
 import com.bank.model.Transaction;
 import com.bank.model.UserBankAccount;
+import com.bank.service.BankPage;
+import com.bank.service.BankService;
 import com.bank.view.BankTransactionsView;
 
 import java.sql.SQLException;
-import java.util.List;
 
 public class BankTransactions {
     private static final Integer limitNumber = 5;
@@ -17,15 +18,15 @@ public class BankTransactions {
     protected static void run(UserBankAccount userBankAccount) throws SQLException {
         BankTransactionsModel.insertLog(userBankAccount.getUsername());
         boolean wantMore;
-        Integer numberOfLogs = BankTransactionsModel.getNumberOfTransactions(userBankAccount.getUsername());
-        int offsetNumber = 0;
+        Integer lastSeenTransactionID = null;
         do {
-            List<Transaction> transactions = BankTransactionsModel.collectTransactions(userBankAccount.getUsername(),
-                    limitNumber, offsetNumber);
-            BankTransactionsView.displayTransactions(transactions);
-            offsetNumber += 5;
+            BankPage<Transaction> transactions = BankService.accountHistory(userBankAccount.getUsername(),
+                    userBankAccount.getBankAccountID(), limitNumber, lastSeenTransactionID);
+            BankTransactionsView.displayTransactions(transactions.getItems());
+            if (!transactions.hasNext()) break;
+            lastSeenTransactionID = transactions.getNextBeforeID();
             wantMore = checkWantMoreLogs();
-        } while (wantMore && offsetNumber <= numberOfLogs);
+        } while (wantMore);
     }
 
     private static boolean checkWantMoreLogs() {
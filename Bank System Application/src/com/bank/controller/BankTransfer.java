@@ -1,7 +1,10 @@
 package com.bank.controller;
 
-import com.bank.model.BankTransferModel;
+import com.bank.model.BankOperationStatus;
+import com.bank.model.BankUtil;
 import com.bank.model.UserBankAccount;
+import com.bank.service.BankOperationResult;
+import com.bank.service.BankService;
 import com.bank.view.BankTransferView;
 import com.bank.view.BankWithdrawalView;
 
@@ -19,8 +22,10 @@ public class BankTransfer {
         Integer otherUserBankAccountID = connectToAnotherUserBankAccount(userBankAccount);
         // if user want to exit this action
         if (otherUserBankAccountID.equals(-1)) return;
-        BankTransferModel.transfer(userBankAccount, otherUserBankAccountID);
-        ;
+        Integer transferredMoney = takeMoneyToBeTransferred(userBankAccount);
+        BankOperationResult result = BankService.transfer(userBankAccount.getUsername(),
+                userBankAccount.getBankAccountID(), otherUserBankAccountID, transferredMoney);
+        if (!result.isOk()) BankUtil.createMessage(result.getStatus().message);
     }
 
     private static Integer connectToAnotherUserBankAccount(UserBankAccount userBankAccount) throws SQLException {
@@ -38,10 +43,25 @@ public class BankTransfer {
         if (!otherUserBankAccountID.matches("[0-9]+")) {
             return false;
         }
-        if (Integer.valueOf(otherUserBankAccountID).equals(userBankAccount.getBankAccountID())) {
-            BankTransferView.showSameAccount();
-            return false;
+        BankOperationStatus status = BankService.checkTransferTarget(userBankAccount.getBankAccountID(),
+                Integer.valueOf(otherUserBankAccountID));
+        switch (status) {
+            case OK -> {
+                return true;
+            }
+            case SAME_ACCOUNT -> BankTransferView.showSameAccount();
+            default -> BankTransferView.showInvalidAccount();
         }
-        return BankTransferModel.checkValidAccount(userBankAccount, otherUserBankAccountID);
+        return false;
+    }
+
+    // read before the transfer starts, so no transaction waits for the user to type
+    private static Integer takeMoneyToBeTransferred(UserBankAccount userBankAccount) {
+        String moneyToBeTransferred;
+        do {
+            moneyToBeTransferred = BankTransferView.takeMoney();
+        } while (!moneyToBeTransferred.matches("[0-9]+") ||
+                Integer.parseInt(moneyToBeTransferred) > userBankAccount.getBalance());
+        return Integer.valueOf(moneyToBeTransferred);
     }
-}
\ No newline at end of file
+}
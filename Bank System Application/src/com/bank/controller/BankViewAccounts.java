@@ -31,9 +31,11 @@ public class BankViewAccounts {
         do {
             BankViewAccountsView.showUserBankAccountFunctions();
             functionNumber = takeUserBankAccountFunction();
-            if (functionNumber == 6) break;
+            if (functionNumber == 7) break;
             userBankAccountNumber = takeUserBankAccountNumber(userBankAccounts);
             runUserBankAccountFunction(functionNumber, userBankAccounts.get(userBankAccountNumber - 1));
+            // pick up the balance and status the function committed; only the accounts it changed are reloaded
+            userBankAccounts = BankViewAccountModel.collectUserBankAccounts(user);
         } while (true);
     }
 
@@ -48,7 +50,7 @@ public class BankViewAccounts {
         String choice;
         do {
             choice = BankViewAccountsView.takeChoice();
-        } while (!choice.matches("[1-6]"));
+        } while (!choice.matches("[1-7]"));
         return Integer.valueOf(choice);
     }
 
@@ -78,6 +80,7 @@ public class BankViewAccounts {
             case 3 -> BankTransfer.run(userBankAccount);
             case 4 -> BankTransactions.run(userBankAccount);
             case 5 -> BankCloseAccount.run(userBankAccount);
+            case 6 -> BankExportTransactions.run(userBankAccount);
         }
     }
 
@@ -1,7 +1,9 @@
 package com.bank.controller;
 
-import com.bank.model.BankWithdrawalModel;
+import com.bank.model.BankUtil;
 import com.bank.model.UserBankAccount;
+import com.bank.service.BankOperationResult;
+import com.bank.service.BankService;
 import com.bank.view.BankWithdrawalView;
 
 import java.sql.SQLException;
@@ -18,7 +20,9 @@ public class BankWithdrawal {
         Integer withdrawalMoney = takeMoneyToWithdraw(userBankAccount);
         // if user want to exit this action
         if (withdrawalMoney.equals(-1)) return;
-        BankWithdrawalModel.withdraw(withdrawalMoney, userBankAccount);
+        BankOperationResult result = BankService.withdraw(userBankAccount.getUsername(),
+                userBankAccount.getBankAccountID(), withdrawalMoney);
+        if (!result.isOk()) BankUtil.createMessage(result.getStatus().message);
     }
 
     private static Integer takeMoneyToWithdraw(UserBankAccount userBankAccount) {
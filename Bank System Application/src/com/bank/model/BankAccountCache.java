@@ -0,0 +1,236 @@
+package com.bank.model;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Bank accounts by id and the account ids of each user, both bounded LRU maps. A posting drops the accounts
+// it changed once its transaction committed instead of writing the new balance in: postings of one account
+// commit in the order of its row lock but may get here in any order, and the next read loads the balance
+// the database has. Entries also expire after a while so changes made outside the application (e.g.
+// activating a pending account) are picked up.
+//
+// A reader loads what it misses and puts it in, which races with a posting committed in between: the
+// posting drops the accounts before the reader's stale balance gets here. So every invalidation is numbered
+// and remembered for the account or user it dropped, a reader takes the current number (epoch()) before
+// loading, and its put skips whatever was invalidated since. Only the latest invalidations are remembered,
+// anything older counts as invalidated when the oldest remembered one was.
+public class BankAccountCache {
+    private BankAccountCache() {
+    }
+
+    private static final int maximumAccounts = Integer.getInteger("bank.accountCache.maximumAccounts", 10_000);
+    private static final int maximumUsers = Integer.getInteger("bank.accountCache.maximumUsers", 5_000);
+    private static final long timeToLiveMillis = Long.getLong("bank.accountCache.timeToLiveMillis", 60_000L);
+
+    private static final ReentrantLock lock = new ReentrantLock();
+    private static final LongAdder hits = new LongAdder();
+    private static final LongAdder misses = new LongAdder();
+    private static final Map<Integer, CachedAccount> accountsByID = new LinkedHashMap<>(256, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, CachedAccount> eldest) {
+            return size() > maximumAccounts;
+        }
+    };
+    // account ids and usernames, guarded by the lock
+    private static final Map<Object, Long> invalidatedAt = new LinkedHashMap<>(256, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Object, Long> eldest) {
+            if (size() <= maximumAccounts + maximumUsers) return false;
+            forgottenInvalidations = Math.max(forgottenInvalidations, eldest.getValue());
+            return true;
+        }
+    };
+    private static long invalidations;
+    private static long forgottenInvalidations;
+    private static final Map<String, CachedUser> accountIDsByUsername = new LinkedHashMap<>(256, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, CachedUser> eldest) {
+            return size() > maximumUsers;
+        }
+    };
+
+    public static UserBankAccount getAccount(Integer bankAccountID) {
+        lock.lock();
+        try {
+            UserBankAccount account = liveAccount(bankAccountID, System.currentTimeMillis());
+            countLookup(account != null);
+            return account;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // null unless every account of the user is still cached
+    public static List<UserBankAccount> getAccountsOf(String username) {
+        lock.lock();
+        try {
+            long now = System.currentTimeMillis();
+            CachedUser cachedUser = accountIDsByUsername.get(username);
+            if (cachedUser == null || now - cachedUser.loadedAt >= timeToLiveMillis) {
+                countLookup(false);
+                return null;
+            }
+            List<UserBankAccount> accounts = new ArrayList<>(cachedUser.bankAccountIDs.size());
+            for (Integer bankAccountID : cachedUser.bankAccountIDs) {
+                UserBankAccount account = liveAccount(bankAccountID, now);
+                if (account == null) {
+                    countLookup(false);
+                    return null;
+                }
+                accounts.add(account);
+            }
+            countLookup(true);
+            return accounts;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // taken before loading what is put
+    public static long epoch() {
+        lock.lock();
+        try {
+            return invalidations;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public static void putAccount(UserBankAccount account, long epoch) {
+        lock.lock();
+        try {
+            if (invalidatedSince(account.getBankAccountID(), epoch)) return;
+            accountsByID.put(account.getBankAccountID(), new CachedAccount(account, System.currentTimeMillis()));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public static void putAccountsOf(String username, List<UserBankAccount> accounts, long epoch) {
+        lock.lock();
+        try {
+            long now = System.currentTimeMillis();
+            List<Integer> bankAccountIDs = new ArrayList<>(accounts.size());
+            for (UserBankAccount account : accounts) {
+                if (!invalidatedSince(account.getBankAccountID(), epoch)) {
+                    accountsByID.put(account.getBankAccountID(), new CachedAccount(account, now));
+                }
+                bankAccountIDs.add(account.getBankAccountID());
+            }
+            if (invalidatedSince(username, epoch)) return;
+            accountIDsByUsername.put(username, new CachedUser(bankAccountIDs, now));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public static void applyStatusChange(Integer bankAccountID, BankAccountStatus status) {
+        lock.lock();
+        try {
+            invalidated(bankAccountID);
+            CachedAccount cachedAccount = accountsByID.get(bankAccountID);
+            if (cachedAccount == null) return;
+            accountsByID.put(bankAccountID, new CachedAccount(cachedAccount.account.withStatus(status),
+                    cachedAccount.loadedAt));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public static void invalidateAccount(Integer bankAccountID) {
+        lock.lock();
+        try {
+            invalidated(bankAccountID);
+            accountsByID.remove(bankAccountID);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public static void invalidateAccounts(Collection<Integer> bankAccountIDs) {
+        lock.lock();
+        try {
+            for (Integer bankAccountID : bankAccountIDs) invalidated(bankAccountID);
+            accountsByID.keySet().removeAll(bankAccountIDs);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // used when the user gains an account whose id is not known yet
+    public static void invalidateAccountsOf(String username) {
+        lock.lock();
+        try {
+            invalidated(username);
+            accountIDsByUsername.remove(username);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public static long getHits() {
+        return hits.sum();
+    }
+
+    public static long getMisses() {
+        return misses.sum();
+    }
+
+    public static double getHitRatio() {
+        long hitCount = hits.sum();
+        long total = hitCount + misses.sum();
+        return total == 0 ? 0 : (double) hitCount / total;
+    }
+
+    private static void invalidated(Object key) {
+        invalidatedAt.put(key, ++invalidations);
+    }
+
+    private static boolean invalidatedSince(Object key, long epoch) {
+        Long invalidation = invalidatedAt.get(key);
+        return (invalidation != null ? invalidation : forgottenInvalidations) > epoch;
+    }
+
+    private static UserBankAccount liveAccount(Integer bankAccountID, long now) {
+        CachedAccount cachedAccount = accountsByID.get(bankAccountID);
+        if (cachedAccount == null) return null;
+        if (now - cachedAccount.loadedAt >= timeToLiveMillis) {
+            accountsByID.remove(bankAccountID);
+            return null;
+        }
+        return cachedAccount.account;
+    }
+
+    private static void countLookup(boolean hit) {
+        if (hit) {
+            hits.increment();
+        } else {
+            misses.increment();
+        }
+    }
+
+    private static class CachedAccount {
+        private final UserBankAccount account;
+        private final long loadedAt;
+
+        private CachedAccount(UserBankAccount account, long loadedAt) {
+            this.account = account;
+            this.loadedAt = loadedAt;
+        }
+    }
+
+    private static class CachedUser {
+        private final List<Integer> bankAccountIDs;
+        private final long loadedAt;
+
+        private CachedUser(List<Integer> bankAccountIDs, long loadedAt) {
+            this.bankAccountIDs = bankAccountIDs;
+            this.loadedAt = loadedAt;
+        }
+    }
+}
@@ -10,9 +10,9 @@ public enum BankAccountType {
 
     public static void showAll() {
         BankUtil.createMessage("There are 2 types of bank accounts");
-        System.out.println(BankAccountType.BASIC);
-        System.out.println();
-        System.out.println(BankAccountType.SAVING);
+        BankUtil.out().println(BankAccountType.BASIC);
+        BankUtil.out().println();
+        BankUtil.out().println(BankAccountType.SAVING);
     }
 
     public static BankAccountType typeInIndex(Integer index) {
@@ -36,17 +36,23 @@ public enum BankAccountType {
         this.withdrawalLimits = withdrawalLimits;
     }
 
+    // the fields above are the compiled-in defaults, the terms in effect come from the bankAccountTypes table
+    public BankAccountTypeTerms terms() {
+        return BankReferenceData.termsOf(this);
+    }
+
     @Override
     public String toString() {
-        return "The " + name + " bank account (" + (ordinal() + 1) + ")\n" +
-                "The minimum balance can have = " + minimumBalanceInAccount + "\n" +
-                "Its fees = " + fees + "\n" +
-                "Its interest = " + interest + "\n" +
-                "The minimum balance to get the interest = " + minimumBalanceToInterest + "\n" +
-                "The withdrawal limit per month = " + withdrawalLimits + "\n";
+        BankAccountTypeTerms terms = terms();
+        return "The " + terms.name + " bank account (" + (ordinal() + 1) + ")\n" +
+                "The minimum balance can have = " + terms.minimumBalanceInAccount + "\n" +
+                "Its fees = " + terms.fees + "\n" +
+                "Its interest = " + terms.interest + "\n" +
+                "The minimum balance to get the interest = " + terms.minimumBalanceToInterest + "\n" +
+                "The withdrawal limit per month = " + terms.withdrawalLimits + "\n";
     }
 
     public boolean checkValidBalance(Integer balance) {
-        return balance >= this.minimumBalanceInAccount;
+        return balance >= terms().minimumBalanceInAccount;
     }
 }
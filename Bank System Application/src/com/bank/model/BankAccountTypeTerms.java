@@ -0,0 +1,25 @@
+package com.bank.model;
+
+public class BankAccountTypeTerms {
+    public final String name;
+    public final Integer minimumBalanceInAccount;
+    public final Integer fees;
+    public final Integer interest;
+    public final Integer minimumBalanceToInterest;
+    public final Integer withdrawalLimits;
+
+    public BankAccountTypeTerms(String name, Integer minimumBalanceInAccount, Integer fees, Integer interest,
+                                Integer minimumBalanceToInterest, Integer withdrawalLimits) {
+        this.name = name;
+        this.minimumBalanceInAccount = minimumBalanceInAccount;
+        this.fees = fees;
+        this.interest = interest;
+        this.minimumBalanceToInterest = minimumBalanceToInterest;
+        this.withdrawalLimits = withdrawalLimits;
+    }
+
+    static BankAccountTypeTerms defaultsOf(BankAccountType type) {
+        return new BankAccountTypeTerms(type.name, type.minimumBalanceInAccount, type.fees, type.interest,
+                type.minimumBalanceToInterest, type.withdrawalLimits);
+    }
+}
@@ -0,0 +1,8 @@
+package com.bank.model;
+
+public enum BankAuditDurability {
+    // the caller continues as soon as the log is queued
+    FIRE_AND_FORGET,
+    // the caller waits until the batch holding its log is committed
+    WAIT_FOR_FLUSH
+}
@@ -0,0 +1,269 @@
+package com.bank.model;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+// Collects log rows of all sessions in a bounded queue and writes them with multi-row inserts from one
+// background thread, so a log never costs its own round trip on the session that produced it.
+public class BankAuditLogWriter {
+    private BankAuditLogWriter() {
+    }
+
+    private static final Logger logger = Logger.getLogger(BankAuditLogWriter.class.getName());
+
+    private static final int queueCapacity = Integer.getInteger("bank.audit.queueCapacity", 10_000);
+    private static final int batchSize = Integer.getInteger("bank.audit.batchSize", 256);
+    private static final long flushIntervalMillis = Long.getLong("bank.audit.flushIntervalMillis", 200L);
+    private static final long offerTimeoutMillis = Long.getLong("bank.audit.offerTimeoutMillis", 1_000L);
+    private static final long flushTimeoutMillis = Long.getLong("bank.audit.flushTimeoutMillis", 2_000L);
+    private static final int maximumAttempts = 3;
+    private static final BankAuditDurability durability = BankAuditDurability.valueOf(
+            System.getProperty("bank.audit.durability", BankAuditDurability.FIRE_AND_FORGET.name()));
+    // batches are split into these sizes so only a handful of distinct statements reach the statement cache
+    private static final int[] chunkSizes = {256, 64, 16, 4, 1};
+
+    private static final BlockingQueue<PendingLog> queue = new ArrayBlockingQueue<>(queueCapacity);
+    private static final LongAdder submitted = new LongAdder();
+    private static final LongAdder written = new LongAdder();
+    private static final LongAdder batches = new LongAdder();
+    private static final LongAdder dropped = new LongAdder();
+    private static final LongAdder backPressured = new LongAdder();
+    private static final LongAdder flushTimeouts = new LongAdder();
+    private static final Thread writer = new Thread(BankAuditLogWriter::run, "bank-audit-log-writer");
+    private static volatile boolean running = true;
+
+    static {
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    public static void submit(Log log) throws SQLException {
+        submitted.increment();
+        if (!running) {
+            writeNow(log);
+            return;
+        }
+        PendingLog pendingLog = new PendingLog(log, durability == BankAuditDurability.WAIT_FOR_FLUSH);
+        if (!enqueue(pendingLog)) {
+            // the queue stayed full for the whole timeout: the writer is behind, so this session writes its
+            // own row, which slows producers down to the speed the database can absorb
+            backPressured.increment();
+            writeNow(log);
+            return;
+        }
+        // queued while shutting down, maybe after the writer's last look at the queue: whoever takes it
+        // out of the queue writes it
+        if (!running && queue.remove(pendingLog)) {
+            writeNow(log);
+            return;
+        }
+        if (pendingLog.flushed != null) {
+            awaitFlush(pendingLog);
+        }
+    }
+
+    // stops accepting logs and writes everything still queued
+    public static void shutdown() {
+        running = false;
+        try {
+            writer.join(10_000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public static int getQueuedLogs() {
+        return queue.size();
+    }
+
+    public static long getSubmittedLogs() {
+        return submitted.sum();
+    }
+
+    public static long getWrittenLogs() {
+        return written.sum();
+    }
+
+    public static long getWrittenBatches() {
+        return batches.sum();
+    }
+
+    public static long getDroppedLogs() {
+        return dropped.sum();
+    }
+
+    public static long getBackPressuredLogs() {
+        return backPressured.sum();
+    }
+
+    // the logs of WAIT_FOR_FLUSH sessions that were not flushed in time
+    public static long getFlushTimeouts() {
+        return flushTimeouts.sum();
+    }
+
+    private static boolean enqueue(PendingLog pendingLog) throws SQLException {
+        try {
+            return queue.offer(pendingLog, offerTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while queueing a log", e);
+        }
+    }
+
+    // after bank.audit.flushTimeoutMillis the session writes the log itself, unless the writer already took
+    // it into an insert, which is then given one more timeout to commit
+    private static void awaitFlush(PendingLog pendingLog) throws SQLException {
+        try {
+            try {
+                pendingLog.flushed.get(flushTimeoutMillis, TimeUnit.MILLISECONDS);
+                return;
+            } catch (TimeoutException e) {
+                flushTimeouts.increment();
+            }
+            if (pendingLog.claim()) {
+                writeNow(pendingLog.log);
+                return;
+            }
+            pendingLog.flushed.get(flushTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a log flush", e);
+        } catch (ExecutionException e) {
+            throw new SQLException("The log could not be written", e.getCause());
+        } catch (TimeoutException e) {
+            throw new SQLException("The log was not flushed within " + 2 * flushTimeoutMillis + " ms", e);
+        }
+    }
+
+    private static void run() {
+        List<PendingLog> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                collectBatch(batch);
+            } catch (InterruptedException e) {
+                queue.drainTo(batch);
+            }
+            if (!batch.isEmpty()) {
+                writeBatch(batch);
+                batch.clear();
+            }
+        }
+    }
+
+    // waits for the first log, then keeps collecting until the batch is full or the flush interval passed
+    private static void collectBatch(List<PendingLog> batch) throws InterruptedException {
+        PendingLog first = queue.poll(flushIntervalMillis, TimeUnit.MILLISECONDS);
+        if (first == null) return;
+        batch.add(first);
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(flushIntervalMillis);
+        while (batch.size() < batchSize) {
+            if (queue.drainTo(batch, batchSize - batch.size()) > 0) continue;
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) break;
+            PendingLog next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next == null) break;
+            batch.add(next);
+        }
+    }
+
+    private static void writeBatch(List<PendingLog> batch) {
+        // the logs whose session gave up waiting are written by the session
+        batch.removeIf(pendingLog -> !pendingLog.claim());
+        if (batch.isEmpty()) return;
+        for (int attempt = 1; ; ++attempt) {
+            try {
+                insertLogs(batch);
+                batches.increment();
+                written.add(batch.size());
+                for (PendingLog pendingLog : batch) {
+                    if (pendingLog.flushed != null) pendingLog.flushed.complete(null);
+                }
+                return;
+            } catch (SQLException e) {
+                if (attempt < maximumAttempts && running) {
+                    sleepBeforeRetry(attempt);
+                    continue;
+                }
+                dropped.add(batch.size());
+                logger.log(Level.SEVERE, "Dropping " + batch.size() + " logs after " + attempt + " attempts", e);
+                for (PendingLog pendingLog : batch) {
+                    if (pendingLog.flushed != null) pendingLog.flushed.completeExceptionally(e);
+                }
+                return;
+            }
+        }
+    }
+
+    private static void insertLogs(List<PendingLog> batch) throws SQLException {
+        try (BankConnection connection = BankConnectionPool.borrow()) {
+            connection.beginTransaction();
+            int index = 0;
+            for (int chunkSize : chunkSizes) {
+                while (batch.size() - index >= chunkSize) {
+                    PreparedStatement statement = connection.prepareStatement(insertStatementFor(chunkSize));
+                    for (int row = 0; row < chunkSize; ++row) {
+                        Log log = batch.get(index++).log;
+                        statement.setString(2 * row + 1, log.getUsername());
+                        statement.setInt(2 * row + 2, BankReferenceData.idOf(log.getType()));
+                    }
+                    statement.executeUpdate();
+                }
+            }
+            connection.commit();
+        }
+    }
+
+    private static String insertStatementFor(int rows) {
+        StringBuilder SQLStatement = new StringBuilder("INSERT INTO logs (username, activityID) VALUES (?, ?)");
+        for (int row = 1; row < rows; ++row) {
+            SQLStatement.append(", (?, ?)");
+        }
+        return SQLStatement.toString();
+    }
+
+    private static void writeNow(Log log) throws SQLException {
+        try (BankConnection connection = BankConnectionPool.borrow()) {
+            PreparedStatement statement = connection.prepareStatement(insertStatementFor(1));
+            statement.setString(1, log.getUsername());
+            statement.setInt(2, BankReferenceData.idOf(log.getType()));
+            statement.executeUpdate();
+        }
+        written.increment();
+    }
+
+    private static void sleepBeforeRetry(int attempt) {
+        try {
+            Thread.sleep(50L * attempt);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static class PendingLog {
+        private final Log log;
+        private final CompletableFuture<Void> flushed;
+        // taken by the writer when it inserts the log, or by the waiting session when it gave up
+        private final AtomicBoolean claimed = new AtomicBoolean();
+
+        private PendingLog(Log log, boolean waitForFlush) {
+            this.log = log;
+            this.flushed = waitForFlush ? new CompletableFuture<>() : null;
+        }
+
+        private boolean claim() {
+            return claimed.compareAndSet(false, true);
+        }
+    }
+}
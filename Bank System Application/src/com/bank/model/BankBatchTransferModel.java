@@ -0,0 +1,138 @@
+package com.bank.model;
+
+import com.bank.storage.BankStorage;
+import com.bank.storage.BankStorageEngine;
+import com.bank.storage.BankTransactionScope;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+public class BankBatchTransferModel {
+    // Posts the instructions as if one transfer after the other, but in one transaction: every account of
+    // the batch is locked once in ascending id order, each instruction is checked against the balances the
+    // instructions before it left, and the accepted ones are netted per account so every account row is
+    // updated once. The transaction and log rows are written with multi-row inserts. Every accepted transfer
+    // uses one of the sending account's monthly withdrawals, as a single transfer does, whatever the net, and
+    // is checked against and counted for the velocity rules as it is accepted, so the instructions after it
+    // see it.
+    public static List<BankOperationStatus> transfer(List<BankTransferInstruction> instructions)
+            throws SQLException {
+        List<BankOperationStatus> statuses = new ArrayList<>(instructions.size());
+        if (instructions.isEmpty()) return statuses;
+        BankStorage storage = BankStorageEngine.get();
+        Map<Integer, UserBankAccount> accounts = new HashMap<>();
+        Map<Integer, Integer> balances = new HashMap<>();
+        Map<Integer, Integer> withdrawalLimits = new HashMap<>();
+        Map<Integer, Integer> amountsByBankAccountID = new TreeMap<>();
+        Map<Integer, Integer> withdrawalsByBankAccountID = new TreeMap<>();
+        List<Transaction> transactions = new ArrayList<>();
+        List<Log> logs = new ArrayList<>();
+        try (BankTransactionScope transaction = storage.beginTransaction()) {
+            List<Integer> bankAccountIDs = bankAccountIDsOf(instructions);
+            List<UserBankAccount> locked = bankAccountIDs.isEmpty() ? List.of()
+                    : storage.accounts().findForUpdate(bankAccountIDs);
+            for (UserBankAccount account : locked) {
+                accounts.put(account.getBankAccountID(), account);
+                balances.put(account.getBankAccountID(), account.getBalance());
+                withdrawalLimits.put(account.getBankAccountID(), account.getWithdrawalLimit());
+            }
+            for (BankTransferInstruction instruction : instructions) {
+                BankOperationStatus status = check(instruction, accounts, balances, withdrawalLimits);
+                if (status == BankOperationStatus.OK) status = checkVelocity(instruction, accounts);
+                statuses.add(status);
+                if (status != BankOperationStatus.OK) continue;
+                Integer bankAccountID = instruction.getBankAccountID();
+                Integer otherBankAccountID = instruction.getOtherBankAccountID();
+                int amount = instruction.getAmount();
+                int receivedAmount = receivedAmountOf(instruction, accounts).intValue();
+                // check keeps the balances in range, and the netted amounts are what they moved by
+                balances.merge(bankAccountID, -amount, Math::addExact);
+                withdrawalLimits.merge(bankAccountID, -1, Integer::sum);
+                withdrawalsByBankAccountID.merge(bankAccountID, 1, Integer::sum);
+                balances.merge(otherBankAccountID, receivedAmount, Math::addExact);
+                amountsByBankAccountID.merge(bankAccountID, -amount, Math::addExact);
+                amountsByBankAccountID.merge(otherBankAccountID, receivedAmount, Math::addExact);
+                BankVelocityMonitor.record(bankAccountID, true, amount);
+                BankVelocityMonitor.record(otherBankAccountID, false, receivedAmount);
+                // the same rows a single transfer writes
+                String username = accounts.get(bankAccountID).getUsername();
+                transactions.add(new Transaction(null, username, bankAccountID, -amount, TransactionType.TRANSFER,
+                        null));
+                transactions.add(new Transaction(null, accounts.get(otherBankAccountID).getUsername(),
+                        otherBankAccountID, receivedAmount, TransactionType.TRANSFER, null));
+                logs.add(new Log(username, ActivityType.TRANSFER, null));
+            }
+            amountsByBankAccountID.values().removeIf(amount -> amount == 0);
+            storage.accounts().addToBalances(amountsByBankAccountID, withdrawalsByBankAccountID);
+            storage.transactions().insertAll(transactions);
+            storage.logs().insertAll(logs);
+            transaction.commit();
+        }
+        BankAccountCache.invalidateAccounts(amountsByBankAccountID.keySet());
+        BankAccountCache.invalidateAccounts(withdrawalsByBankAccountID.keySet());
+        return statuses;
+    }
+
+    // the same checks, in the same order, as the postTransfer procedure, and the conversion of BankTransferModel
+    // withdrawalLimits are what the instructions before this one left of the limits
+    private static BankOperationStatus check(BankTransferInstruction instruction,
+                                             Map<Integer, UserBankAccount> accounts, Map<Integer, Integer> balances,
+                                             Map<Integer, Integer> withdrawalLimits) {
+        if (instruction.getAmount() <= 0) return BankOperationStatus.INVALID_AMOUNT;
+        if (instruction.getBankAccountID() != null
+                && instruction.getBankAccountID().equals(instruction.getOtherBankAccountID())) {
+            return BankOperationStatus.SAME_ACCOUNT;
+        }
+        UserBankAccount account = accounts.get(instruction.getBankAccountID());
+        if (account == null) return BankOperationStatus.ACCOUNT_NOT_FOUND;
+        if (account.getStatus() != BankAccountStatus.ACTIVE) return BankOperationStatus.ACCOUNT_NOT_ACTIVE;
+        UserBankAccount otherAccount = accounts.get(instruction.getOtherBankAccountID());
+        if (otherAccount == null || otherAccount.getStatus() != BankAccountStatus.ACTIVE) {
+            return BankOperationStatus.OTHER_ACCOUNT_NOT_VALID;
+        }
+        Long receivedAmount = receivedAmountOf(instruction, accounts);
+        if (receivedAmount == null) return BankOperationStatus.CURRENCY_NOT_CONVERTIBLE;
+        if (receivedAmount <= 0 || receivedAmount > Integer.MAX_VALUE) return BankOperationStatus.INVALID_AMOUNT;
+        int balance = balances.get(account.getBankAccountID());
+        if (withdrawalLimits.get(account.getBankAccountID()) <= 0) return BankOperationStatus.WITHDRAWAL_LIMIT_REACHED;
+        if (instruction.getAmount() > balance) return BankOperationStatus.INSUFFICIENT_BALANCE;
+        if (balance - instruction.getAmount() < account.getType().terms().minimumBalanceInAccount) {
+            return BankOperationStatus.MINIMUM_BALANCE_REACHED;
+        }
+        // the balance of the other account would overflow
+        if (balances.get(otherAccount.getBankAccountID()) + receivedAmount > Integer.MAX_VALUE) {
+            return BankOperationStatus.INVALID_AMOUNT;
+        }
+        return BankOperationStatus.OK;
+    }
+
+    // the legs of the transfer, as BankPostingGuard checks a single one
+    private static BankOperationStatus checkVelocity(BankTransferInstruction instruction,
+                                                     Map<Integer, UserBankAccount> accounts) {
+        BankOperationStatus status = BankVelocityMonitor.check(instruction.getBankAccountID(), true,
+                instruction.getAmount());
+        if (status != BankOperationStatus.OK) return status;
+        return BankVelocityMonitor.check(instruction.getOtherBankAccountID(), false,
+                receivedAmountOf(instruction, accounts).intValue());
+    }
+
+    // the amount in the currency of the other account, null when there is no rate between the currencies
+    private static Long receivedAmountOf(BankTransferInstruction instruction, Map<Integer, UserBankAccount> accounts) {
+        return BankExchangeRates.convert(instruction.getAmount(),
+                accounts.get(instruction.getBankAccountID()).getCurrency(),
+                accounts.get(instruction.getOtherBankAccountID()).getCurrency());
+    }
+
+    private static List<Integer> bankAccountIDsOf(List<BankTransferInstruction> instructions) {
+        List<Integer> bankAccountIDs = new ArrayList<>(2 * instructions.size());
+        for (BankTransferInstruction instruction : instructions) {
+            if (instruction.getBankAccountID() != null) bankAccountIDs.add(instruction.getBankAccountID());
+            if (instruction.getOtherBankAccountID() != null) bankAccountIDs.add(instruction.getOtherBankAccountID());
+        }
+        return bankAccountIDs.stream().distinct().sorted().toList();
+    }
+}
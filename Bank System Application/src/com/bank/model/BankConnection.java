@@ -0,0 +1,150 @@
+package com.bank.model;
+
+import com.bank.storage.BankTransactionScope;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
+public class BankConnection implements BankTransactionScope {
+    private final Connection connection;
+    private final BankStatementCache statementCache;
+    private final long createdAt;
+    private volatile long lastReturnedAt;
+    private volatile long borrowedAt;
+    private volatile String borrowerName;
+    private volatile Throwable borrowTrace;
+    private volatile boolean leakReported;
+    private int holdCount;
+    // a nested borrower rolled back, the outer one can't commit
+    private boolean rollbackOnly;
+
+    BankConnection(Connection connection) {
+        this.connection = connection;
+        this.statementCache = new BankStatementCache(connection);
+        this.createdAt = System.currentTimeMillis();
+        this.lastReturnedAt = createdAt;
+    }
+
+    // the returned statement is owned by the connection's cache, callers close their result sets only
+    public PreparedStatement prepareStatement(String SQLStatement) throws SQLException {
+        return statementCache.prepare(SQLStatement);
+    }
+
+    public Connection getConnection() {
+        return connection;
+    }
+
+    public void beginTransaction() throws SQLException {
+        if (connection.getAutoCommit()) {
+            connection.setAutoCommit(false);
+        }
+    }
+
+    public boolean inTransaction() throws SQLException {
+        return !connection.getAutoCommit();
+    }
+
+    public void commit() throws SQLException {
+        // a nested borrower must not end the transaction of the outer one
+        if (holdCount > 1 || connection.getAutoCommit()) return;
+        if (rollbackOnly) {
+            rollbackOnly = false;
+            connection.rollback();
+            connection.setAutoCommit(true);
+            throw new SQLException("The transaction was rolled back, a nested unit of work rolled back its part");
+        }
+        connection.commit();
+        connection.setAutoCommit(true);
+    }
+
+    // a nested borrower can't undo only its own part, the whole transaction is rolled back by the outer
+    // borrower's commit instead, which fails
+    public void rollback() throws SQLException {
+        if (connection.getAutoCommit()) return;
+        if (holdCount > 1) {
+            rollbackOnly = true;
+            return;
+        }
+        rollbackOnly = false;
+        connection.rollback();
+        connection.setAutoCommit(true);
+    }
+
+    @Override
+    public void close() throws SQLException {
+        if (--holdCount == 0) {
+            BankConnectionPool.release(this);
+        }
+    }
+
+    void lease(boolean traceBorrower) {
+        holdCount = 1;
+        rollbackOnly = false;
+        borrowedAt = System.currentTimeMillis();
+        borrowerName = Thread.currentThread().getName();
+        borrowTrace = traceBorrower ? new Throwable("Connection borrowed by " + Thread.currentThread().getName())
+                : null;
+        leakReported = false;
+    }
+
+    void hold() {
+        ++holdCount;
+    }
+
+    // anything the borrower left open is rolled back so the next borrower starts clean
+    void reset() throws SQLException {
+        if (!connection.getAutoCommit()) {
+            connection.rollback();
+            connection.setAutoCommit(true);
+        }
+        rollbackOnly = false;
+        connection.clearWarnings();
+        lastReturnedAt = System.currentTimeMillis();
+    }
+
+    boolean validate(int timeoutSeconds) {
+        try {
+            return !connection.isClosed() && connection.isValid(timeoutSeconds);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    void discard() {
+        statementCache.close();
+        try {
+            connection.close();
+        } catch (SQLException ignored) {
+        }
+    }
+
+    long getCreatedAt() {
+        return createdAt;
+    }
+
+    long getLastReturnedAt() {
+        return lastReturnedAt;
+    }
+
+    long getBorrowedAt() {
+        return borrowedAt;
+    }
+
+    String getBorrowerName() {
+        return borrowerName;
+    }
+
+    // null unless leak tracing is on
+    Throwable getBorrowTrace() {
+        return borrowTrace;
+    }
+
+    boolean isLeakReported() {
+        return leakReported;
+    }
+
+    void markLeakReported() {
+        leakReported = true;
+    }
+}
@@ -0,0 +1,197 @@
+package com.bank.model;
+
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.Deque;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+public class BankConnectionPool {
+    private BankConnectionPool() {
+    }
+
+    private static final Logger logger = Logger.getLogger(BankConnectionPool.class.getName());
+
+    // server-side prepared statements so the per-connection statement cache saves the prepare round trip
+    private static final String url = System.getProperty("bank.db.url",
+            "jdbc:mysql://localhost:3306/bank_db?useServerPrepStmts=true");
+    private static final String username = System.getProperty("bank.db.username", "root");
+    private static final String password = System.getProperty("bank.db.password", "Vishal@97");
+
+    private static final int maximumSize = Integer.getInteger("bank.pool.maximumSize",
+            Math.max(4, Runtime.getRuntime().availableProcessors() * 2));
+    private static final int minimumIdle = Integer.getInteger("bank.pool.minimumIdle", 1);
+    private static final long borrowTimeoutMillis = Long.getLong("bank.pool.borrowTimeoutMillis", 30_000L);
+    private static final long validationIntervalMillis = Long.getLong("bank.pool.validationIntervalMillis", 5_000L);
+    private static final long idleTimeoutMillis = Long.getLong("bank.pool.idleTimeoutMillis", 600_000L);
+    private static final long maximumLifetimeMillis = Long.getLong("bank.pool.maximumLifetimeMillis", 1_800_000L);
+    private static final long leakThresholdMillis = Long.getLong("bank.pool.leakThresholdMillis", 60_000L);
+    // records the stack of every borrow so a leak report shows where the connection was taken, too costly to
+    // leave on in production
+    private static final boolean traceLeaks = Boolean.getBoolean("bank.pool.traceLeaks");
+    private static final long housekeepingIntervalMillis = 15_000L;
+    private static final int validationTimeoutSeconds = 2;
+
+    private static final Semaphore permits = new Semaphore(maximumSize, true);
+    // used as a stack so the most recently returned (warmest) connection is handed out first
+    private static final Deque<BankConnection> idleConnections = new ConcurrentLinkedDeque<>();
+    private static final Set<BankConnection> borrowedConnections = ConcurrentHashMap.newKeySet();
+    private static final ThreadLocal<BankConnection> currentConnection = new ThreadLocal<>();
+    private static final ScheduledExecutorService housekeeper = Executors.newSingleThreadScheduledExecutor(task -> {
+        Thread thread = new Thread(task, "bank-pool-housekeeper");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private static volatile boolean closed;
+
+    static {
+        housekeeper.scheduleWithFixedDelay(BankConnectionPool::houseKeep, housekeepingIntervalMillis,
+                housekeepingIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    // a thread that already holds a connection gets the same one back, so helpers called inside a
+    // transaction (logs, transactions rows) take part in it instead of opening a second connection
+    public static BankConnection borrow() throws SQLException {
+        BankConnection connection = currentConnection.get();
+        if (connection != null) {
+            connection.hold();
+            return connection;
+        }
+        if (closed) {
+            throw new SQLException("The connection pool is shut down");
+        }
+        acquirePermit();
+        try {
+            connection = takeIdleConnection();
+            if (connection == null) {
+                connection = new BankConnection(DriverManager.getConnection(url, username, password));
+            }
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+        connection.lease(traceLeaks && leakThresholdMillis > 0);
+        borrowedConnections.add(connection);
+        currentConnection.set(connection);
+        return connection;
+    }
+
+    public static boolean inTransaction() throws SQLException {
+        BankConnection connection = currentConnection.get();
+        return connection != null && connection.inTransaction();
+    }
+
+    static void release(BankConnection connection) {
+        currentConnection.remove();
+        borrowedConnections.remove(connection);
+        try {
+            connection.reset();
+            if (closed || expired(connection, System.currentTimeMillis())) {
+                connection.discard();
+            } else {
+                idleConnections.offerFirst(connection);
+            }
+        } catch (SQLException e) {
+            connection.discard();
+        } finally {
+            permits.release();
+        }
+    }
+
+    public static void shutdown() {
+        closed = true;
+        housekeeper.shutdownNow();
+        BankConnection connection;
+        while ((connection = idleConnections.pollFirst()) != null) {
+            connection.discard();
+        }
+    }
+
+    public static int getMaximumSize() {
+        return maximumSize;
+    }
+
+    public static int getActiveConnections() {
+        return borrowedConnections.size();
+    }
+
+    public static int getIdleConnections() {
+        return idleConnections.size();
+    }
+
+    public static int getThreadsAwaitingConnection() {
+        return permits.getQueueLength();
+    }
+
+    private static void acquirePermit() throws SQLException {
+        try {
+            if (!permits.tryAcquire(borrowTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                throw new SQLTransientConnectionException("Timed out after " + borrowTimeoutMillis + "ms waiting for a connection ("
+                        + borrowedConnections.size() + " of " + maximumSize + " in use)");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a connection", e);
+        }
+    }
+
+    private static BankConnection takeIdleConnection() {
+        BankConnection connection;
+        while ((connection = idleConnections.pollFirst()) != null) {
+            long now = System.currentTimeMillis();
+            if (expired(connection, now)) {
+                connection.discard();
+                continue;
+            }
+            // recently used connections are trusted, anything older is pinged before it is handed out
+            if (now - connection.getLastReturnedAt() < validationIntervalMillis
+                    || connection.validate(validationTimeoutSeconds)) {
+                return connection;
+            }
+            connection.discard();
+        }
+        return null;
+    }
+
+    private static boolean expired(BankConnection connection, long now) {
+        return maximumLifetimeMillis > 0 && now - connection.getCreatedAt() >= maximumLifetimeMillis;
+    }
+
+    private static void houseKeep() {
+        long now = System.currentTimeMillis();
+        evictIdleConnections(now);
+        detectLeaks(now);
+    }
+
+    private static void evictIdleConnections(long now) {
+        int idle = idleConnections.size();
+        for (BankConnection connection : idleConnections) {
+            if (idle <= minimumIdle) break;
+            boolean idleTooLong = now - connection.getLastReturnedAt() >= idleTimeoutMillis;
+            // remove() fails if a borrower took the connection in the meantime
+            if ((idleTooLong || expired(connection, now)) && idleConnections.remove(connection)) {
+                connection.discard();
+                --idle;
+            }
+        }
+    }
+
+    private static void detectLeaks(long now) {
+        if (leakThresholdMillis <= 0) return;
+        for (BankConnection connection : borrowedConnections) {
+            if (!connection.isLeakReported() && now - connection.getBorrowedAt() >= leakThresholdMillis) {
+                connection.markLeakReported();
+                logger.log(Level.WARNING, "Connection held by " + connection.getBorrowerName() + " for more than "
+                        + leakThresholdMillis + "ms, possible leak", connection.getBorrowTrace());
+            }
+        }
+    }
+}
@@ -1,45 +1,24 @@
 package com.bank.model;
 
-import com.bank.controller.BankException;
+import com.bank.storage.BankStorageEngine;
 
-import java.sql.PreparedStatement;
 import java.sql.SQLException;
 
 public class BankDepositModel {
-    public static void deposit(Integer addedMoney, UserBankAccount userBankAccount) throws SQLException{
-        try {
-            BankUtil.connection.setAutoCommit(false);
-            depositMoneyToUserBankAccount(addedMoney, userBankAccount);
-            // insert this log
-            BankUtil.insertIntoLogTable(new Log(
-                    userBankAccount.getUsername(), ActivityType.DEPOSIT, null
-            ));
-            // insert this transaction
-            BankUtil.insertIntoTransactionsTable(new Transaction(
-                    userBankAccount.getUsername(), addedMoney, TransactionType.DEPOSIT, null
-            ));
-            BankUtil.connection.commit();
-        } catch (BankException e) {
-            e.run();
-            BankUtil.connection.rollback();
-        } finally {
-            BankUtil.connection.setAutoCommit(true);
-        }
-
+    public static BankPosting deposit(String username, Integer bankAccountID, Integer addedMoney)
+            throws SQLException {
+        return deposit(username, bankAccountID, addedMoney, null);
     }
 
-    public static void depositMoneyToUserBankAccount(Integer addedMoney, UserBankAccount userBankAccount)
-            throws SQLException {
-        try {
-            String SQLStatement = "call updateBankAccountBalance(?,?)";
-            PreparedStatement statement = BankUtil.connection.prepareStatement(SQLStatement);
-            statement.setString(1, Integer.toString(addedMoney));
-            statement.setString(2, Integer.toString(userBankAccount.getBankAccountID()));
-            statement.addBatch();
-            statement.executeBatch();
-            statement.close();
-        } catch (BankException e) {
-            e.run();
-        }
+    // the balance update, the transaction row and the log row are posted together in one round trip; a retry
+    // with the same idempotency key gets the result of the first request instead of depositing again
+    public static BankPosting deposit(String username, Integer bankAccountID, Integer addedMoney,
+                                      String idempotencyKey) throws SQLException {
+        String request = BankIdempotencyWindow.requestOf(TransactionType.DEPOSIT, bankAccountID, null, addedMoney);
+        BankPosting replayed = BankPostingGuard.replay(username, idempotencyKey, request);
+        if (replayed != null) return replayed;
+        return BankPostingGuard.post(username, idempotencyKey, request, bankAccountID, false, addedMoney, null, null,
+                () -> BankStorageEngine.get().postings().deposit(username, bankAccountID, addedMoney,
+                        idempotencyKey));
     }
 }
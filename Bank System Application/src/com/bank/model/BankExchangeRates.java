@@ -0,0 +1,137 @@
+package com.bank.model;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+// The exchange rates between the currencies as a matrix indexed by the currencies' ordinals. A reload builds
+// a new matrix and swaps it in whole, so a conversion is a couple of array lookups and a multiplication,
+// sees either the old or the new rates, and never waits for a reload. The rates come from the exchangeRates
+// table, or from the file given by bank.exchangeRates.file with one "FROM TO RATE" line per pair (e.g.
+// "EURO DOLLAR 1.08"). A pair without a rate can't be converted; until the first load only amounts of the
+// same currency can. Converted amounts are rounded down, the bank keeps the fraction.
+public class BankExchangeRates {
+    private BankExchangeRates() {
+    }
+
+    private static final Logger logger = Logger.getLogger(BankExchangeRates.class.getName());
+    private static final String ratesFile = System.getProperty("bank.exchangeRates.file");
+    private static final long reloadIntervalSeconds = Long.getLong("bank.exchangeRates.reloadIntervalSeconds",
+            60L);
+    // the rates are fixed point with the 8 decimals of the rate column, 0 is no rate
+    private static final int rateDecimals = 8;
+    private static final long rateScale = 100_000_000L;
+
+    private static final AtomicReference<long[][]> rates = new AtomicReference<>(identity());
+    private static ScheduledExecutorService reloader;
+
+    // loads the rates and keeps reloading them in the background
+    public static synchronized void start() throws SQLException {
+        load();
+        if (reloadIntervalSeconds <= 0 || reloader != null) return;
+        reloader = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "bank-exchange-rates-reloader");
+            thread.setDaemon(true);
+            return thread;
+        });
+        reloader.scheduleWithFixedDelay(() -> {
+            try {
+                load();
+            } catch (SQLException e) {
+                logger.log(Level.WARNING, "Could not reload the exchange rates, the previous ones stay in use", e);
+            }
+        }, reloadIntervalSeconds, reloadIntervalSeconds, TimeUnit.SECONDS);
+    }
+
+    public static synchronized void shutdown() {
+        if (reloader != null) {
+            reloader.shutdownNow();
+            reloader = null;
+        }
+    }
+
+    public static boolean hasRatesFile() {
+        return ratesFile != null;
+    }
+
+    public static void load() throws SQLException {
+        try {
+            rates.set(ratesFile != null ? readFile(Path.of(ratesFile)) : readTable());
+        } catch (IOException | IllegalArgumentException e) {
+            throw new SQLException("Cannot load the exchange rates" + (ratesFile != null ? " from " + ratesFile : ""),
+                    e);
+        }
+    }
+
+    // the amount in the other currency, null when there is no rate between the two
+    public static Long convert(long amount, Currency from, Currency to) {
+        long rate = rates.get()[from.ordinal()][to.ordinal()];
+        if (rate == 0) return null;
+        if (rate == rateScale) return amount;
+        try {
+            return Math.floorDiv(Math.multiplyExact(amount, rate), rateScale);
+        } catch (ArithmeticException e) {
+            return BigInteger.valueOf(amount).multiply(BigInteger.valueOf(rate))
+                    .divide(BigInteger.valueOf(rateScale)).longValueExact();
+        }
+    }
+
+    private static long[][] readTable() throws SQLException {
+        long[][] loadedRates = identity();
+        try (BankConnection connection = BankConnectionPool.borrow()) {
+            PreparedStatement statement = connection.prepareStatement(
+                    "SELECT currencyID, otherCurrencyID, rate FROM exchangeRates");
+            try (ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    Currency from = BankReferenceData.currency(resultSet.getInt("currencyID"));
+                    Currency to = BankReferenceData.currency(resultSet.getInt("otherCurrencyID"));
+                    if (from == null || to == null || from == to) continue;
+                    loadedRates[from.ordinal()][to.ordinal()] = scaled(resultSet.getBigDecimal("rate"));
+                }
+            }
+        }
+        return loadedRates;
+    }
+
+    private static long[][] readFile(Path file) throws IOException {
+        long[][] loadedRates = identity();
+        List<String> lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+        for (String line : lines) {
+            String trimmed = line.strip();
+            if (trimmed.isEmpty() || trimmed.startsWith("#")) continue;
+            String[] fields = trimmed.split("[\\s,]+");
+            if (fields.length != 3) throw new IllegalArgumentException("Not a FROM TO RATE line: " + line);
+            Currency from = Currency.valueOf(fields[0]);
+            Currency to = Currency.valueOf(fields[1]);
+            if (from != to) loadedRates[from.ordinal()][to.ordinal()] = scaled(new BigDecimal(fields[2]));
+        }
+        return loadedRates;
+    }
+
+    private static long scaled(BigDecimal rate) {
+        if (rate.signum() <= 0) throw new IllegalArgumentException("An exchange rate must be positive: " + rate);
+        return rate.movePointRight(rateDecimals).longValue();
+    }
+
+    private static long[][] identity() {
+        int currencies = Currency.values().length;
+        long[][] identity = new long[currencies][currencies];
+        for (int i = 0; i < currencies; ++i) {
+            identity[i][i] = rateScale;
+        }
+        return identity;
+    }
+}
@@ -0,0 +1,16 @@
+package com.bank.model;
+
+public enum BankExportFormat {
+    CSV("csv"),
+    NDJSON("ndjson");
+
+    public final String extension;
+
+    BankExportFormat(String extension) {
+        this.extension = extension;
+    }
+
+    public static BankExportFormat typeInIndex(Integer index) {
+        return BankExportFormat.values()[index];
+    }
+}
@@ -0,0 +1,46 @@
+package com.bank.model;
+
+import java.nio.file.Path;
+
+public class BankExportReport {
+    private final Path file;
+    private final long rows;
+    private final long bytes;
+    private final long elapsedNanos;
+
+    public BankExportReport(Path file, long rows, long bytes, long elapsedNanos) {
+        this.file = file;
+        this.rows = rows;
+        this.bytes = bytes;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    public long getRows() {
+        return rows;
+    }
+
+    public long getBytes() {
+        return bytes;
+    }
+
+    public double getRowsPerSecond() {
+        return elapsedNanos == 0 ? 0 : rows * 1e9 / elapsedNanos;
+    }
+
+    public double getMegabytesPerSecond() {
+        return elapsedNanos == 0 ? 0 : bytes * 1e9 / elapsedNanos / (1024 * 1024);
+    }
+
+    @Override
+    public String toString() {
+        return "Exported rows: (" + rows + ")\n" +
+                "Written bytes: (" + bytes + ") to (" + file.toAbsolutePath() + ")\n" +
+                "Elapsed time: (" + String.format("%.1f", elapsedNanos / 1e6) + " ms)\n" +
+                "Throughput: (" + String.format("%.0f", getRowsPerSecond()) + " rows/s, " +
+                String.format("%.2f", getMegabytesPerSecond()) + " MB/s)\n";
+    }
+}
@@ -0,0 +1,61 @@
+package com.bank.model;
+
+import com.bank.storage.BankStorageEngine;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.sql.SQLException;
+
+public class BankExportTransactionsModel {
+    private static final int writeBufferSize = 64 * 1024;
+
+    public static BankExportReport exportTransactions(String username, BankExportFormat format, Path file)
+            throws SQLException, IOException {
+        long startedAt = System.nanoTime();
+        long rows;
+        long bytes;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            Writer writer = new BufferedWriter(Channels.newWriter(channel, StandardCharsets.UTF_8), writeBufferSize);
+            if (format == BankExportFormat.CSV) {
+                writer.write("id,amount,type,createdAt\n");
+            }
+            StringBuilder line = new StringBuilder(128);
+            rows = BankStorageEngine.get().transactions().forEachByUsername(username, transaction -> {
+                line.setLength(0);
+                appendRow(line, format, transaction.getId(), transaction.getAmount(), transaction.getType(),
+                        transaction.getCreatedAt());
+                writer.append(line);
+            });
+            writer.flush();
+            bytes = channel.position();
+        }
+        return new BankExportReport(file, rows, bytes, System.nanoTime() - startedAt);
+    }
+
+    private static void appendRow(StringBuilder line, BankExportFormat format, int id, int amount,
+                                  TransactionType type, String createdAt) {
+        switch (format) {
+            case CSV -> line.append(id).append(',')
+                    .append(amount).append(',')
+                    .append(type.name()).append(',')
+                    .append(createdAt).append('\n');
+            case NDJSON -> line.append("{\"id\":").append(id)
+                    .append(",\"amount\":").append(amount)
+                    .append(",\"type\":\"").append(type.name())
+                    .append("\",\"createdAt\":\"").append(createdAt).append("\"}\n");
+        }
+    }
+
+    public static void insertLog(String username) throws SQLException {
+        BankUtil.insertIntoLogTable(new Log(
+                username, ActivityType.ViewTransactionHistory, null
+        ));
+    }
+}
@@ -0,0 +1,93 @@
+package com.bank.model;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+// The results of the latest postings made with an idempotency key, a bounded LRU map in front of the
+// idempotencyKeys table: a retry that arrives here is answered without a round trip, anything older or
+// posted by another instance is answered by the posting itself from the table. Only results of committed
+// postings are remembered.
+public class BankIdempotencyWindow {
+    private BankIdempotencyWindow() {
+    }
+
+    public static final int maximumKeyLength = 64;
+
+    private static final int maximumKeys = Integer.getInteger("bank.idempotency.maximumKeys", 100_000);
+    // an older retry is still answered from the table, which keeps its keys for a day
+    private static final long timeToLiveMillis = Long.getLong("bank.idempotency.timeToLiveMillis", 3_600_000L);
+
+    private static final ReentrantLock lock = new ReentrantLock();
+    private static final LongAdder replays = new LongAdder();
+    private static final Map<String, RememberedPosting> postingsByKey = new LinkedHashMap<>(256, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, RememberedPosting> eldest) {
+            return size() > maximumKeys;
+        }
+    };
+
+    // identifies an operation and its arguments, the same as the request column of the posting procedures
+    public static String requestOf(TransactionType type, Integer bankAccountID, Integer otherBankAccountID,
+                                   int amount) {
+        return otherBankAccountID == null ? type + ":" + bankAccountID + ":" + amount
+                : type + ":" + bankAccountID + ":" + otherBankAccountID + ":" + amount;
+    }
+
+    public static void checkKey(String idempotencyKey) {
+        if (idempotencyKey != null && (idempotencyKey.isEmpty() || idempotencyKey.length() > maximumKeyLength)) {
+            throw new IllegalArgumentException("An idempotency key has 1 to " + maximumKeyLength + " characters");
+        }
+    }
+
+    // null when the key wasn't seen recently
+    public static BankPosting replay(String username, String idempotencyKey, String request) {
+        lock.lock();
+        try {
+            String key = keyOf(username, idempotencyKey);
+            RememberedPosting remembered = postingsByKey.get(key);
+            if (remembered == null) return null;
+            if (System.currentTimeMillis() - remembered.postedAt >= timeToLiveMillis) {
+                postingsByKey.remove(key);
+                return null;
+            }
+            replays.increment();
+            return remembered.request.equals(request) ? remembered.posting.replayed()
+                    : BankPosting.rejected(BankOperationStatus.IDEMPOTENCY_KEY_REUSED).replayed();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public static void remember(String username, String idempotencyKey, String request, BankPosting posting) {
+        lock.lock();
+        try {
+            postingsByKey.put(keyOf(username, idempotencyKey),
+                    new RememberedPosting(request, posting, System.currentTimeMillis()));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // of the window only, replays answered by the table are not counted here
+    public static long getReplays() {
+        return replays.sum();
+    }
+
+    private static String keyOf(String username, String idempotencyKey) {
+        return username + '\u0000' + idempotencyKey;
+    }
+
+    private static class RememberedPosting {
+        private final String request;
+        private final BankPosting posting;
+        private final long postedAt;
+
+        private RememberedPosting(String request, BankPosting posting, long postedAt) {
+            this.request = request;
+            this.posting = posting;
+            this.postedAt = postedAt;
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.bank.model;
+
+// A chunk of consecutive account ids whose interest of a month is credited; accounts and interest are what
+// the chunk credited.
+public class BankInterestCheckpoint {
+    private final String period;
+    private final Integer firstBankAccountID;
+    private final Integer lastBankAccountID;
+    private final int accounts;
+    private final long interest;
+
+    public BankInterestCheckpoint(String period, Integer firstBankAccountID, Integer lastBankAccountID,
+                                  int accounts, long interest) {
+        this.period = period;
+        this.firstBankAccountID = firstBankAccountID;
+        this.lastBankAccountID = lastBankAccountID;
+        this.accounts = accounts;
+        this.interest = interest;
+    }
+
+    public String getPeriod() {
+        return period;
+    }
+
+    public Integer getFirstBankAccountID() {
+        return firstBankAccountID;
+    }
+
+    public Integer getLastBankAccountID() {
+        return lastBankAccountID;
+    }
+
+    public int getAccounts() {
+        return accounts;
+    }
+
+    public long getInterest() {
+        return interest;
+    }
+
+    public boolean covers(Integer bankAccountID) {
+        return bankAccountID >= firstBankAccountID && bankAccountID <= lastBankAccountID;
+    }
+}
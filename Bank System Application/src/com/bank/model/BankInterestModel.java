@@ -0,0 +1,71 @@
+package com.bank.model;
+
+import com.bank.storage.BankStorage;
+import com.bank.storage.BankStorageEngine;
+import com.bank.storage.BankTransactionScope;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+public class BankInterestModel {
+    private static final int monthsPerYear = 12;
+
+    // Credits the interest of the period to the accounts with ids from first to last (inclusive) in one
+    // transaction: the accounts are locked, the ones a checkpoint of the period already covers are left out,
+    // every balance is updated once and the INTEREST rows are written with multi-row inserts, and the
+    // checkpoint of the chunk commits with the credits. null when the whole chunk was already credited.
+    public static BankInterestCheckpoint credit(String period, Integer firstBankAccountID,
+                                                Integer lastBankAccountID) throws SQLException {
+        BankStorage storage = BankStorageEngine.get();
+        Map<Integer, Integer> interestByBankAccountID = new TreeMap<>();
+        BankInterestCheckpoint checkpoint;
+        try (BankTransactionScope transaction = storage.beginTransaction()) {
+            List<UserBankAccount> accounts = storage.accounts().findRangeForUpdate(firstBankAccountID,
+                    lastBankAccountID);
+            // read after the accounts are locked, so a chunk credited concurrently has committed by now
+            List<BankInterestCheckpoint> checkpoints = storage.interest().findCheckpoints(period,
+                    firstBankAccountID, lastBankAccountID);
+            for (BankInterestCheckpoint done : checkpoints) {
+                if (done.covers(firstBankAccountID) && done.covers(lastBankAccountID)) return null;
+            }
+            List<Transaction> transactions = new ArrayList<>();
+            long interest = 0;
+            for (UserBankAccount account : accounts) {
+                if (isCovered(account.getBankAccountID(), checkpoints)) continue;
+                int accountInterest = interestOf(account);
+                if (accountInterest <= 0) continue;
+                interestByBankAccountID.put(account.getBankAccountID(), accountInterest);
+                transactions.add(new Transaction(null, account.getUsername(), account.getBankAccountID(),
+                        accountInterest, TransactionType.INTEREST, null));
+                interest += accountInterest;
+            }
+            checkpoint = new BankInterestCheckpoint(period, firstBankAccountID, lastBankAccountID,
+                    interestByBankAccountID.size(), interest);
+            storage.accounts().addToBalances(interestByBankAccountID, Map.of());
+            storage.transactions().insertAll(transactions);
+            storage.interest().insertCheckpoint(checkpoint);
+            transaction.commit();
+        }
+        BankAccountCache.invalidateAccounts(interestByBankAccountID.keySet());
+        return checkpoint;
+    }
+
+    // interest is the yearly rate in percent, a month earns a twelfth of it rounded down to whole units;
+    // only active accounts with at least minimumBalanceToInterest earn any
+    public static int interestOf(UserBankAccount account) {
+        if (account.getStatus() != BankAccountStatus.ACTIVE) return 0;
+        BankAccountTypeTerms terms = account.getType().terms();
+        if (account.getBalance() < terms.minimumBalanceToInterest) return 0;
+        return (int) ((long) account.getBalance() * terms.interest / (100L * monthsPerYear));
+    }
+
+    private static boolean isCovered(Integer bankAccountID, List<BankInterestCheckpoint> checkpoints) {
+        for (BankInterestCheckpoint checkpoint : checkpoints) {
+            if (checkpoint.covers(bankAccountID)) return true;
+        }
+        return false;
+    }
+}
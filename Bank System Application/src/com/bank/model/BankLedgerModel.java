@@ -0,0 +1,20 @@
+package com.bank.model;
+
+import com.bank.storage.BankStorageEngine;
+
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+
+public class BankLedgerModel {
+    // every balance change made before the given time and none after it
+    public static Integer collectBalanceBefore(Integer bankAccountID, LocalDateTime before) throws SQLException {
+        return BankStorageEngine.get().ledger().balanceBefore(bankAccountID, before);
+    }
+
+    // the period starts at from and ends just before to
+    public static BankStatementBalances collectStatementBalances(Integer bankAccountID, LocalDateTime from,
+                                                                 LocalDateTime to) throws SQLException {
+        return new BankStatementBalances(collectBalanceBefore(bankAccountID, from),
+                collectBalanceBefore(bankAccountID, to));
+    }
+}
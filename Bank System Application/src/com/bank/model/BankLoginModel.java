@@ -1,47 +1,47 @@
 package com.bank.model;
 
-import com.bank.controller.BankException;
+import com.bank.storage.BankStorageEngine;
 
-import java.sql.PreparedStatement;
-import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 public class BankLoginModel {
-    public static String getPasswordOf(String username) throws SQLException {
-        String password = null;
-        try {
-            String SQLStatement = "call getUserPassword(?)";
-            PreparedStatement statement = BankUtil.connection.prepareStatement(SQLStatement);
-            statement.setString(1, username);
-            ResultSet resultSet = statement.executeQuery();
-            if (resultSet.next()) {
-                password = resultSet.getString("password");
+    private static final Logger logger = Logger.getLogger(BankLoginModel.class.getName());
+
+    // the user's profile when the password is right, else null. The stored password and the profile come
+    // from the user cache, or from one query that fills it. An unknown username still costs a hash, so it
+    // fails as slowly as a wrong password.
+    public static User authenticate(String username, String password) throws SQLException {
+        User storedUser = BankUserCache.getUser(username);
+        if (storedUser == null) {
+            storedUser = BankStorageEngine.get().users().findLogin(username);
+            if (storedUser == null) {
+                BankPasswordHasher.verifyUnknownUser(password);
+                return null;
             }
-            statement.close();
-            resultSet.close();
-        } catch (BankException e) {
-            e.run();
+            BankUserCache.putUser(storedUser);
         }
-        return password;
+        if (!checkPassword(username, password, storedUser.getPassword())) return null;
+        return new User(username, password, storedUser.getFirstName(), storedUser.getLastName(),
+                storedUser.getPhoneNumber(), storedUser.getAddress(), storedUser.getEmail());
     }
 
-    public static User collectUserData(String username, String password) throws SQLException {
-        User user = null;
-        try {
-            String SQLStatement = "call getUserInfo(?)";
-            PreparedStatement statement = BankUtil.connection.prepareStatement(SQLStatement);
-            statement.setString(1, username);
-            ResultSet resultSet = statement.executeQuery();
-            if (resultSet.next()) {
-                user = new User(username, password, resultSet.getString("firstName"),
-                        resultSet.getString("lastName"), resultSet.getString("phoneNumber"),
-                        resultSet.getString("address"), resultSet.getString("email"));
+    // whether the password is the stored one; a plaintext or outdated stored password is replaced by a hash
+    // with the current cost once the user proved to know it
+    private static boolean checkPassword(String username, String password, String storedPassword)
+            throws SQLException {
+        if (!BankPasswordHasher.verify(password, storedPassword)) return false;
+        if (BankPasswordHasher.needsRehash(storedPassword)) {
+            try {
+                BankStorageEngine.get().users().rehashPassword(username, storedPassword,
+                        BankPasswordHasher.hash(password));
+                BankUserCache.invalidateUser(username);
+            } catch (SQLException e) {
+                // tried again on the next login
+                logger.log(Level.WARNING, "Could not rehash the password of " + username, e);
             }
-            statement.close();
-            resultSet.close();
-        } catch (BankException e) {
-            e.run();
         }
-        return user;
+        return true;
     }
 }
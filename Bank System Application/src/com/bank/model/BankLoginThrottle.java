@@ -0,0 +1,123 @@
+package com.bank.model;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Turns away login attempts faster than a user or a client could type them before they reach the database.
+// Every username and every client address (in server mode) has a token bucket: an attempt takes a token
+// from both of its buckets, and only when both have one, so an attempt turned away by one bucket doesn't
+// use up the other. The tokens come back at bank.loginThrottle.userAttemptsPerMinute
+// (clientAttemptsPerMinute) up to a burst of userBurst (clientBurst) attempts, so a guessing burst is cut
+// short and then slowed down to the refill rate while a user who mistyped their password a couple of times
+// never notices. A bucket is a couple of numbers in a bounded LRU map; a bucket that filled up again is the
+// same as none and is dropped once it is the least recently used, and at most
+// bank.loginThrottle.maximumKeys buckets are kept.
+public class BankLoginThrottle {
+    private BankLoginThrottle() {
+    }
+
+    private static final boolean enabled = Boolean.parseBoolean(System.getProperty("bank.loginThrottle.enabled",
+            "true"));
+    private static final int userBurst = Integer.getInteger("bank.loginThrottle.userBurst", 5);
+    private static final int userAttemptsPerMinute = Integer.getInteger("bank.loginThrottle.userAttemptsPerMinute",
+            5);
+    private static final int clientBurst = Integer.getInteger("bank.loginThrottle.clientBurst", 20);
+    private static final int clientAttemptsPerMinute = Integer.getInteger(
+            "bank.loginThrottle.clientAttemptsPerMinute", 30);
+    private static final int maximumKeys = Integer.getInteger("bank.loginThrottle.maximumKeys", 100_000);
+
+    private static final ReentrantLock lock = new ReentrantLock();
+    private static final LongAdder admitted = new LongAdder();
+    private static final LongAdder rejected = new LongAdder();
+    private static final Map<String, Bucket> bucketsByKey = new LinkedHashMap<>(256, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Bucket> eldest) {
+            return size() > maximumKeys || eldest.getValue().isFull(System.nanoTime());
+        }
+    };
+
+    // whether the login attempt may go on; client is null for the console
+    public static boolean admit(String username, String client) {
+        if (!enabled) return true;
+        long now = System.nanoTime();
+        boolean admit;
+        lock.lock();
+        try {
+            // a bucket that isn't kept is full
+            Bucket clientBucket = client == null ? null : bucketsByKey.get("client:" + client);
+            Bucket userBucket = bucketsByKey.get("user:" + username);
+            admit = (clientBucket == null || clientBucket.hasToken(now)) && (userBucket == null
+                    || userBucket.hasToken(now));
+            if (admit) {
+                if (client != null) take("client:" + client, clientBucket, clientBurst, clientAttemptsPerMinute, now);
+                take("user:" + username, userBucket, userBurst, userAttemptsPerMinute, now);
+            }
+        } finally {
+            lock.unlock();
+        }
+        (admit ? admitted : rejected).increment();
+        return admit;
+    }
+
+    public static long getAdmitted() {
+        return admitted.sum();
+    }
+
+    public static long getRejected() {
+        return rejected.sum();
+    }
+
+    public static int getTrackedKeys() {
+        lock.lock();
+        try {
+            return bucketsByKey.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static void take(String key, Bucket bucket, int burst, int attemptsPerMinute, long now) {
+        if (bucket != null) {
+            bucket.take(now);
+            return;
+        }
+        // taken from before it is added, a full bucket would be dropped again right away
+        bucket = new Bucket(burst, attemptsPerMinute, now);
+        bucket.take(now);
+        bucketsByKey.put(key, bucket);
+    }
+
+    // the tokens are refilled when the bucket is used, from the time passed since it was last used
+    private static class Bucket {
+        private final int burst;
+        private final double tokensPerNano;
+        private double tokens;
+        private long refilledAt;
+
+        private Bucket(int burst, int attemptsPerMinute, long now) {
+            this.burst = burst;
+            this.tokensPerNano = attemptsPerMinute / 60e9;
+            this.tokens = burst;
+            this.refilledAt = now;
+        }
+
+        private boolean hasToken(long now) {
+            return tokensAt(now) >= 1;
+        }
+
+        private void take(long now) {
+            tokens = tokensAt(now) - 1;
+            refilledAt = now;
+        }
+
+        private boolean isFull(long now) {
+            return tokensAt(now) >= burst;
+        }
+
+        private double tokensAt(long now) {
+            return Math.min(burst, tokens + (now - refilledAt) * tokensPerNano);
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.bank.model;
+
+public enum BankOperationStatus {
+    OK("Done successfully"),
+    INVALID_AMOUNT("The amount of money isn't valid!"),
+    ACCOUNT_NOT_FOUND("This bank account ID doesn't exist!"),
+    ACCOUNT_NOT_ACTIVE("This bank account isn't active!"),
+    OTHER_ACCOUNT_NOT_VALID("This bank account ID doesn't exist or isn't active!"),
+    SAME_ACCOUNT("You cannot transfer to the same bank account!"),
+    INSUFFICIENT_BALANCE("The balance of this bank account isn't enough!"),
+    MINIMUM_BALANCE_REACHED("The balance cannot go below the minimum of this bank account type!"),
+    WITHDRAWAL_LIMIT_REACHED("The number of monthly withdrawals has end!"),
+    CURRENCY_NOT_CONVERTIBLE("There is no exchange rate between the currencies of these bank accounts!"),
+    VELOCITY_LIMIT_REACHED("Too many or too large operations on this bank account in a short time, try again later!"),
+    IDEMPOTENCY_KEY_REUSED("This request id was already used for another operation!"),
+    ACCEPTED("The operation was accepted and will be done shortly!");
+
+    public final String message;
+
+    BankOperationStatus(String message) {
+        this.message = message;
+    }
+}
@@ -0,0 +1,180 @@
+package com.bank.model;
+
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.PBEKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.sql.SQLException;
+import java.util.Base64;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+// Hashes the passwords with PBKDF2 (HMAC-SHA512) and a random salt, stored as
+// "pbkdf2-sha512$iterations$salt$hash" so the cost a password was hashed with travels with it. The cost is
+// bank.password.iterations; raising it rehashes every password on its user's next login, as a plaintext
+// password of an older row is. The hashing runs on bank.password.threads threads of its own with a queue of
+// bank.password.queueSize, so a login storm takes at most those cores and the session threads only wait for
+// their result; when the queue is full the login fails right away instead of queueing up behind the storm.
+public class BankPasswordHasher {
+    private BankPasswordHasher() {
+    }
+
+    private static final String algorithm = "PBKDF2WithHmacSHA512";
+    private static final String prefix = "pbkdf2-sha512$";
+    private static final int iterations = Integer.getInteger("bank.password.iterations", 210_000);
+    private static final int threads = Integer.getInteger("bank.password.threads",
+            Runtime.getRuntime().availableProcessors());
+    private static final int queueSize = Integer.getInteger("bank.password.queueSize", 256);
+    private static final int saltBytes = 16;
+    private static final int hashBits = 256;
+
+    private static final SecureRandom random = new SecureRandom();
+    private static final ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 0L,
+            TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(queueSize), task -> {
+        Thread thread = new Thread(task, "bank-password-hasher");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private static final LongAdder hashes = new LongAdder();
+    private static final LongAdder hashNanos = new LongAdder();
+    private static final LongAdder waitNanos = new LongAdder();
+    private static final LongAdder rejected = new LongAdder();
+    // the stored password of no user, random so no password matches it
+    private static final String unknownUserPassword = randomHash();
+
+    public static String hash(String password) throws SQLException {
+        byte[] salt = new byte[saltBytes];
+        random.nextBytes(salt);
+        byte[] hash = run(() -> pbkdf2(password, salt, iterations));
+        return format(salt, hash);
+    }
+
+    // whether the password is the one stored, hashed or, for the rows from before the hashing, plaintext
+    public static boolean verify(String password, String storedPassword) throws SQLException {
+        if (!storedPassword.startsWith(prefix)) {
+            return MessageDigest.isEqual(password.getBytes(StandardCharsets.UTF_8),
+                    storedPassword.getBytes(StandardCharsets.UTF_8));
+        }
+        String[] fields = storedPassword.substring(prefix.length()).split("\\$");
+        if (fields.length != 3) return false;
+        int storedIterations = iterationsOf(fields[0]);
+        if (storedIterations <= 0) return false;
+        byte[] salt;
+        byte[] expected;
+        try {
+            salt = Base64.getDecoder().decode(fields[1]);
+            expected = Base64.getDecoder().decode(fields[2]);
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+        if (salt.length == 0) return false;
+        byte[] actual = run(() -> pbkdf2(password, salt, storedIterations));
+        return MessageDigest.isEqual(expected, actual);
+    }
+
+    // takes as long as verify does for a user with a current hash, so a failed login doesn't tell whether the
+    // username exists
+    public static void verifyUnknownUser(String password) throws SQLException {
+        verify(password, unknownUserPassword);
+    }
+
+    // a plaintext password, or one hashed with less than the current cost
+    public static boolean needsRehash(String storedPassword) {
+        if (!storedPassword.startsWith(prefix)) return true;
+        int end = storedPassword.indexOf('$', prefix.length());
+        return end < 0 || iterationsOf(storedPassword.substring(prefix.length(), end)) < iterations;
+    }
+
+    public static long getHashes() {
+        return hashes.sum();
+    }
+
+    // the time a hash took on a hashing thread
+    public static double getAverageHashMillis() {
+        long count = hashes.sum();
+        return count == 0 ? 0 : hashNanos.sum() / 1e6 / count;
+    }
+
+    // the time a hash waited in the queue for a hashing thread
+    public static double getAverageWaitMillis() {
+        long count = hashes.sum();
+        return count == 0 ? 0 : waitNanos.sum() / 1e6 / count;
+    }
+
+    // the hashes turned away because the queue was full
+    public static long getRejected() {
+        return rejected.sum();
+    }
+
+    public static int getQueued() {
+        return executor.getQueue().size();
+    }
+
+    private static byte[] run(Callable<byte[]> hashing) throws SQLException {
+        long submittedAt = System.nanoTime();
+        Future<byte[]> result;
+        try {
+            result = executor.submit(() -> {
+                long startedAt = System.nanoTime();
+                waitNanos.add(startedAt - submittedAt);
+                try {
+                    return hashing.call();
+                } finally {
+                    hashNanos.add(System.nanoTime() - startedAt);
+                    hashes.increment();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw new SQLException("Too many logins at once (" + queueSize + " passwords waiting to be hashed)", e);
+        }
+        try {
+            return result.get();
+        } catch (InterruptedException e) {
+            result.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a password hash", e);
+        } catch (ExecutionException e) {
+            throw new SQLException("Cannot hash the password", e.getCause());
+        }
+    }
+
+    // 0 for a damaged hash, which matches no password and counts as hashed with less than the current cost
+    private static int iterationsOf(String field) {
+        try {
+            return Integer.parseInt(field);
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    private static String randomHash() {
+        byte[] salt = new byte[saltBytes];
+        byte[] hash = new byte[hashBits / 8];
+        random.nextBytes(salt);
+        random.nextBytes(hash);
+        return format(salt, hash);
+    }
+
+    private static String format(byte[] salt, byte[] hash) {
+        Base64.Encoder encoder = Base64.getEncoder().withoutPadding();
+        return prefix + iterations + "$" + encoder.encodeToString(salt) + "$" + encoder.encodeToString(hash);
+    }
+
+    private static byte[] pbkdf2(String password, byte[] salt, int iterations) throws GeneralSecurityException {
+        PBEKeySpec spec = new PBEKeySpec(password.toCharArray(), salt, iterations, hashBits);
+        try {
+            return SecretKeyFactory.getInstance(algorithm).generateSecret(spec).getEncoded();
+        } finally {
+            spec.clearPassword();
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.bank.model;
+
+// The outcome of posting a deposit, withdrawal or transfer. The balances are the committed ones after the
+// posting, or the ones the rules were checked against when it was rejected; otherBalance is only known
+// for transfers. A replayed posting is the stored result of an earlier request with the same idempotency key.
+public class BankPosting {
+    private final BankOperationStatus status;
+    private final Integer balance;
+    private final Integer withdrawalLimit;
+    private final Integer otherBalance;
+    private final boolean replayed;
+    private final String idempotencyKey;
+
+    public BankPosting(BankOperationStatus status, Integer balance, Integer withdrawalLimit, Integer otherBalance) {
+        this(status, balance, withdrawalLimit, otherBalance, false);
+    }
+
+    public BankPosting(BankOperationStatus status, Integer balance, Integer withdrawalLimit, Integer otherBalance,
+                       boolean replayed) {
+        this(status, balance, withdrawalLimit, otherBalance, replayed, null);
+    }
+
+    private BankPosting(BankOperationStatus status, Integer balance, Integer withdrawalLimit, Integer otherBalance,
+                        boolean replayed, String idempotencyKey) {
+        this.status = status;
+        this.balance = balance;
+        this.withdrawalLimit = withdrawalLimit;
+        this.otherBalance = otherBalance;
+        this.replayed = replayed;
+        this.idempotencyKey = idempotencyKey;
+    }
+
+    public static BankPosting rejected(BankOperationStatus status) {
+        return new BankPosting(status, null, null, null);
+    }
+
+    // journaled under the idempotency key, the caller's or a generated one, that its outcome is stored with
+    public static BankPosting accepted(String idempotencyKey) {
+        return new BankPosting(BankOperationStatus.ACCEPTED, null, null, null, false, idempotencyKey);
+    }
+
+    public BankOperationStatus getStatus() {
+        return status;
+    }
+
+    public boolean isPosted() {
+        return status == BankOperationStatus.OK;
+    }
+
+    // journaled but not posted yet, so neither the balances nor the outcome are known
+    public boolean isPending() {
+        return status == BankOperationStatus.ACCEPTED;
+    }
+
+    public Integer getBalance() {
+        return balance;
+    }
+
+    public Integer getWithdrawalLimit() {
+        return withdrawalLimit;
+    }
+
+    public Integer getOtherBalance() {
+        return otherBalance;
+    }
+
+    public boolean isReplayed() {
+        return replayed;
+    }
+
+    // only known for an accepted posting; a retry of the same request with it gets the outcome once posted
+    public String getIdempotencyKey() {
+        return idempotencyKey;
+    }
+
+    public BankPosting replayed() {
+        return new BankPosting(status, balance, withdrawalLimit, otherBalance, true, idempotencyKey);
+    }
+}
@@ -0,0 +1,56 @@
+package com.bank.model;
+
+import java.sql.SQLException;
+
+// What every deposit, withdrawal and transfer does around its posting. A retry of a key this application
+// remembers is answered without a round trip, and the velocity rules are checked before the posting. After
+// it, the changed accounts are dropped from the account cache, the money is counted for the velocity rules
+// and the result is remembered for the key. A journaled posting has no outcome yet and isn't remembered; a
+// retry of it is answered from the idempotencyKeys table once it is posted.
+public class BankPostingGuard {
+    private BankPostingGuard() {
+    }
+
+    // the remembered result of the key, null when there is no key or it wasn't seen recently
+    public static BankPosting replay(String username, String idempotencyKey, String request) {
+        if (idempotencyKey == null) return null;
+        BankIdempotencyWindow.checkKey(idempotencyKey);
+        return BankIdempotencyWindow.replay(username, idempotencyKey, request);
+    }
+
+    // the amount moves into or out of the account; a transfer also moves otherAmount into the other account,
+    // which is null for a deposit or a withdrawal
+    public static BankPosting post(String username, String idempotencyKey, String request, Integer bankAccountID,
+                                   boolean outgoing, Integer amount, Integer otherBankAccountID,
+                                   Integer otherAmount, Posting posting) throws SQLException {
+        BankOperationStatus velocity = BankVelocityMonitor.check(bankAccountID, outgoing, amount);
+        if (velocity == BankOperationStatus.OK && otherBankAccountID != null) {
+            velocity = BankVelocityMonitor.check(otherBankAccountID, false, otherAmount);
+        }
+        if (velocity != BankOperationStatus.OK) return BankPosting.rejected(velocity);
+        BankPosting result = posting.post();
+        if (result.isPosted() && !result.isReplayed()) {
+            BankAccountCache.invalidateAccount(bankAccountID);
+            if (otherBankAccountID != null) BankAccountCache.invalidateAccount(otherBankAccountID);
+        }
+        if ((result.isPosted() && !result.isReplayed()) || result.isPending()) {
+            BankVelocityMonitor.record(bankAccountID, outgoing, amount);
+            if (otherBankAccountID != null) BankVelocityMonitor.record(otherBankAccountID, false, otherAmount);
+        }
+        if (idempotencyKey != null && !result.isPending()) {
+            BankIdempotencyWindow.remember(username, idempotencyKey, request, result);
+        }
+        return result;
+    }
+
+    // a journaled posting reached the database, reported by the storage (see BankService.start)
+    public static void posted(Integer bankAccountID, Integer otherBankAccountID, BankPosting result) {
+        if (!result.isPosted()) return;
+        BankAccountCache.invalidateAccount(bankAccountID);
+        if (otherBankAccountID != null) BankAccountCache.invalidateAccount(otherBankAccountID);
+    }
+
+    public interface Posting {
+        BankPosting post() throws SQLException;
+    }
+}
@@ -0,0 +1,191 @@
+package com.bank.model;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+// The lookup tables of the database indexed by their ids. The ids are only ever translated through these
+// arrays, and load() refuses to start if a table disagrees with its enum, which is what makes the
+// ordinal() + 1 ids used when writing rows safe. Until load() runs, the enums themselves are used.
+public class BankReferenceData {
+    private BankReferenceData() {
+    }
+
+    private static final Logger logger = Logger.getLogger(BankReferenceData.class.getName());
+    private static final long reloadIntervalSeconds = Long.getLong("bank.referenceData.reloadIntervalSeconds", 0L);
+
+    private static volatile BankAccountType[] accountTypes = byID(BankAccountType.values(), BankAccountType[]::new);
+    private static volatile Currency[] currencies = byID(Currency.values(), Currency[]::new);
+    private static volatile BankAccountStatus[] statuses = byID(BankAccountStatus.values(), BankAccountStatus[]::new);
+    private static volatile ActivityType[] activityTypes = byID(ActivityType.values(), ActivityType[]::new);
+    private static volatile TransactionType[] transactionTypes = byID(TransactionType.values(),
+            TransactionType[]::new);
+    private static volatile BankAccountTypeTerms[] accountTypeTerms = defaultTerms();
+    private static ScheduledExecutorService reloader;
+
+    public static synchronized void load() throws SQLException {
+        List<String> mismatches = new ArrayList<>();
+        BankAccountType[] loadedAccountTypes = loadTable("bankAccountTypes", BankAccountType.values(),
+                type -> type.name, BankAccountType[]::new, mismatches);
+        Currency[] loadedCurrencies = loadTable("currencies", Currency.values(), Currency::getName,
+                Currency[]::new, mismatches);
+        BankAccountStatus[] loadedStatuses = loadTable("status", BankAccountStatus.values(),
+                BankAccountStatus::getName, BankAccountStatus[]::new, mismatches);
+        ActivityType[] loadedActivityTypes = loadTable("activityTypes", ActivityType.values(),
+                type -> type.name, ActivityType[]::new, mismatches);
+        TransactionType[] loadedTransactionTypes = loadTable("transactionTypes", TransactionType.values(),
+                type -> type.name, TransactionType[]::new, mismatches);
+        if (!mismatches.isEmpty()) {
+            throw new SQLException("The lookup tables don't match the application: " + String.join("; ", mismatches));
+        }
+        accountTypes = loadedAccountTypes;
+        currencies = loadedCurrencies;
+        statuses = loadedStatuses;
+        activityTypes = loadedActivityTypes;
+        transactionTypes = loadedTransactionTypes;
+        reloadAccountTypeTerms();
+        scheduleReloads();
+    }
+
+    // fees, interest and limits may be edited in bankAccountTypes while the application runs
+    public static void reloadAccountTypeTerms() throws SQLException {
+        BankAccountTypeTerms[] loadedTerms = new BankAccountTypeTerms[accountTypeTerms.length];
+        try (BankConnection connection = BankConnectionPool.borrow()) {
+            String SQLStatement = "SELECT id, name, minimumBalanceInAccount, fees, interest, " +
+                    "minimumBalanceToInterest, withdrawalLimit FROM bankAccountTypes";
+            PreparedStatement statement = connection.prepareStatement(SQLStatement);
+            ResultSet resultSet = statement.executeQuery();
+            while (resultSet.next()) {
+                int id = resultSet.getInt("id");
+                if (id >= loadedTerms.length) continue;
+                loadedTerms[id] = new BankAccountTypeTerms(resultSet.getString("name"),
+                        resultSet.getInt("minimumBalanceInAccount"), resultSet.getInt("fees"),
+                        resultSet.getInt("interest"), resultSet.getInt("minimumBalanceToInterest"),
+                        resultSet.getInt("withdrawalLimit"));
+            }
+            resultSet.close();
+        }
+        for (BankAccountType type : BankAccountType.values()) {
+            if (loadedTerms[idOf(type)] == null) {
+                loadedTerms[idOf(type)] = BankAccountTypeTerms.defaultsOf(type);
+            }
+        }
+        accountTypeTerms = loadedTerms;
+    }
+
+    public static synchronized void shutdown() {
+        if (reloader != null) {
+            reloader.shutdownNow();
+            reloader = null;
+        }
+    }
+
+    public static BankAccountType accountType(int id) {
+        return lookup(accountTypes, id);
+    }
+
+    public static Currency currency(int id) {
+        return lookup(currencies, id);
+    }
+
+    public static BankAccountStatus status(int id) {
+        return lookup(statuses, id);
+    }
+
+    public static ActivityType activityType(int id) {
+        return lookup(activityTypes, id);
+    }
+
+    public static TransactionType transactionType(int id) {
+        return lookup(transactionTypes, id);
+    }
+
+    public static BankAccountTypeTerms termsOf(BankAccountType type) {
+        return accountTypeTerms[idOf(type)];
+    }
+
+    public static int idOf(Enum<?> type) {
+        return type.ordinal() + 1;
+    }
+
+    private static <T> T lookup(T[] byID, int id) {
+        return id > 0 && id < byID.length ? byID[id] : null;
+    }
+
+    private static <T extends Enum<T>> T[] byID(T[] constants, IntFunction<T[]> arrayFactory) {
+        T[] byID = arrayFactory.apply(constants.length + 1);
+        for (T constant : constants) {
+            byID[idOf(constant)] = constant;
+        }
+        return byID;
+    }
+
+    private static BankAccountTypeTerms[] defaultTerms() {
+        BankAccountTypeTerms[] terms = new BankAccountTypeTerms[BankAccountType.values().length + 1];
+        for (BankAccountType type : BankAccountType.values()) {
+            terms[idOf(type)] = BankAccountTypeTerms.defaultsOf(type);
+        }
+        return terms;
+    }
+
+    // every enum constant must be the row with id ordinal() + 1 and carry the same name, either the
+    // constant's own name or its display name
+    private static <T extends Enum<T>> T[] loadTable(String table, T[] constants, Function<T, String> displayName,
+                                                     IntFunction<T[]> arrayFactory, List<String> mismatches)
+            throws SQLException {
+        T[] byID = arrayFactory.apply(constants.length + 1);
+        boolean[] hasRow = new boolean[constants.length + 1];
+        try (BankConnection connection = BankConnectionPool.borrow()) {
+            PreparedStatement statement = connection.prepareStatement("SELECT id, name FROM " + table);
+            ResultSet resultSet = statement.executeQuery();
+            while (resultSet.next()) {
+                int id = resultSet.getInt("id");
+                String name = resultSet.getString("name");
+                if (id < 1 || id > constants.length) {
+                    mismatches.add(table + " row " + id + " (" + name + ") is unknown to the application");
+                    continue;
+                }
+                hasRow[id] = true;
+                T constant = constants[id - 1];
+                if (!name.equalsIgnoreCase(constant.name()) && !name.equalsIgnoreCase(displayName.apply(constant))) {
+                    mismatches.add(table + " row " + id + " is " + name + " but the application expects "
+                            + constant.name());
+                    continue;
+                }
+                byID[id] = constant;
+            }
+            resultSet.close();
+        }
+        for (T constant : constants) {
+            if (!hasRow[idOf(constant)]) {
+                mismatches.add(table + " has no row " + idOf(constant) + " for " + constant.name());
+            }
+        }
+        return byID;
+    }
+
+    private static void scheduleReloads() {
+        if (reloadIntervalSeconds <= 0 || reloader != null) return;
+        reloader = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "bank-reference-data-reloader");
+            thread.setDaemon(true);
+            return thread;
+        });
+        reloader.scheduleWithFixedDelay(() -> {
+            try {
+                reloadAccountTypeTerms();
+            } catch (SQLException e) {
+                logger.log(Level.WARNING, "Could not reload the bank account types", e);
+            }
+        }, reloadIntervalSeconds, reloadIntervalSeconds, TimeUnit.SECONDS);
+    }
+}
@@ -0,0 +1,70 @@
+package com.bank.model;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintStream;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.Scanner;
+
+// The input and output of the user driving the current thread. The console is the session of every thread
+// that didn't open its own; the server opens one per connection on the connection's virtual thread.
+public class BankSession implements Closeable {
+    private static final BankSession console = new BankSession(System.in, System.out, null);
+    private static final ThreadLocal<BankSession> current = new ThreadLocal<>();
+
+    private final Scanner scanner;
+    private final PrintStream out;
+    private final Closeable connection;
+
+    private BankSession(InputStream in, PrintStream out, Closeable connection) {
+        this.scanner = new Scanner(in, StandardCharsets.UTF_8);
+        this.out = out;
+        this.connection = connection;
+    }
+
+    public static BankSession current() {
+        BankSession session = current.get();
+        return session != null ? session : console;
+    }
+
+    // binds a new session to the calling thread until it is closed
+    public static BankSession open(InputStream in, PrintStream out, Closeable connection) {
+        BankSession session = new BankSession(in, out, connection);
+        current.set(session);
+        return session;
+    }
+
+    // whatever was printed is the prompt the user answers, so it is flushed before reading
+    public Scanner getScanner() {
+        out.flush();
+        return scanner;
+    }
+
+    public PrintStream getOut() {
+        return out;
+    }
+
+    // the address of the remote client, null for the console
+    public String getClient() {
+        return connection instanceof Socket socket && socket.getInetAddress() != null
+                ? socket.getInetAddress().getHostAddress() : null;
+    }
+
+    @Override
+    public void close() {
+        out.flush();
+        if (this == current.get()) {
+            current.remove();
+        }
+        if (connection != null) {
+            try {
+                connection.close();
+            } catch (IOException ignored) {
+            }
+        } else {
+            scanner.close();
+        }
+    }
+}
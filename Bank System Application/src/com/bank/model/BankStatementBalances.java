@@ -0,0 +1,21 @@
+package com.bank.model;
+
+// The balances of an account at the start and at the end of a statement period; null where the account
+// didn't exist yet.
+public class BankStatementBalances {
+    private final Integer openingBalance;
+    private final Integer closingBalance;
+
+    public BankStatementBalances(Integer openingBalance, Integer closingBalance) {
+        this.openingBalance = openingBalance;
+        this.closingBalance = closingBalance;
+    }
+
+    public Integer getOpeningBalance() {
+        return openingBalance;
+    }
+
+    public Integer getClosingBalance() {
+        return closingBalance;
+    }
+}
@@ -0,0 +1,79 @@
+package com.bank.model;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+// Prepared statements of one pooled connection keyed by their SQL text. A connection is only used by the
+// thread that borrowed it, so the cache itself needs no locking; the counters are shared by all connections.
+public class BankStatementCache {
+    private static final int capacity = Integer.getInteger("bank.statementCache.size", 64);
+    private static final LongAdder hits = new LongAdder();
+    private static final LongAdder misses = new LongAdder();
+    private static final LongAdder evictions = new LongAdder();
+
+    private final Connection connection;
+    private final Map<String, PreparedStatement> statements;
+
+    BankStatementCache(Connection connection) {
+        this.connection = connection;
+        this.statements = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, PreparedStatement> eldest) {
+                if (size() <= capacity) return false;
+                evictions.increment();
+                closeQuietly(eldest.getValue());
+                return true;
+            }
+        };
+    }
+
+    PreparedStatement prepare(String SQLStatement) throws SQLException {
+        PreparedStatement statement = statements.get(SQLStatement);
+        if (statement != null && !statement.isClosed()) {
+            hits.increment();
+            statement.clearParameters();
+            statement.clearBatch();
+            return statement;
+        }
+        misses.increment();
+        statement = connection.prepareStatement(SQLStatement);
+        statements.put(SQLStatement, statement);
+        return statement;
+    }
+
+    void close() {
+        for (PreparedStatement statement : statements.values()) {
+            closeQuietly(statement);
+        }
+        statements.clear();
+    }
+
+    private static void closeQuietly(PreparedStatement statement) {
+        try {
+            statement.close();
+        } catch (SQLException ignored) {
+        }
+    }
+
+    public static long getHits() {
+        return hits.sum();
+    }
+
+    public static long getMisses() {
+        return misses.sum();
+    }
+
+    public static long getEvictions() {
+        return evictions.sum();
+    }
+
+    public static double getHitRatio() {
+        long hitCount = hits.sum();
+        long total = hitCount + misses.sum();
+        return total == 0 ? 0 : (double) hitCount / total;
+    }
+}
@@ -0,0 +1,26 @@
+package com.bank.model;
+
+// One transfer of a batch, e.g. one salary of a payroll run.
+public class BankTransferInstruction {
+    private final Integer bankAccountID;
+    private final Integer otherBankAccountID;
+    private final int amount;
+
+    public BankTransferInstruction(Integer bankAccountID, Integer otherBankAccountID, int amount) {
+        this.bankAccountID = bankAccountID;
+        this.otherBankAccountID = otherBankAccountID;
+        this.amount = amount;
+    }
+
+    public Integer getBankAccountID() {
+        return bankAccountID;
+    }
+
+    public Integer getOtherBankAccountID() {
+        return otherBankAccountID;
+    }
+
+    public int getAmount() {
+        return amount;
+    }
+}
@@ -1,95 +1,42 @@
 package com.bank.model;
 
-import com.bank.controller.BankException;
-import com.bank.view.BankTransferView;
+import com.bank.storage.BankStorageEngine;
 
-import java.sql.PreparedStatement;
-import java.sql.ResultSet;
 import java.sql.SQLException;
 
 public class BankTransferModel {
-    public static void transfer(UserBankAccount userBankAccount, Integer otherUserBankAccountID)
-            throws SQLException {
-        try {
-            BankUtil.connection.setAutoCommit(false);
-            transferMoney(userBankAccount, otherUserBankAccountID);
-            // insert this log
-            BankUtil.insertIntoLogTable(new Log(
-                    userBankAccount.getUsername(), ActivityType.TRANSFER, null
-            ));
-            BankUtil.connection.commit();
-        } catch (BankException e) {
-            e.run();
-            BankUtil.connection.rollback();
-        } finally {
-            BankUtil.connection.setAutoCommit(true);
-        }
-    }
-
-    private static void transferMoney(UserBankAccount userBankAccount, Integer otherUserBankAccountID)
-            throws SQLException {
-        Integer transferredMoney = takeMoneyToBeTransferred(userBankAccount);
-        transferMoneyToOtherUserBankAccount(transferredMoney, otherUserBankAccountID);
-        withdrawMoneyFromThisUserBankAccount(userBankAccount, transferredMoney);
-        // insert this transaction
-        BankUtil.insertIntoTransactionsTable(new Transaction(
-                userBankAccount.getUsername(), transferredMoney, TransactionType.WITHDRAWAL, null
-        ));
-    }
-
-    private static Integer takeMoneyToBeTransferred(UserBankAccount userBankAccount) {
-        String moneyToBeTransferred;
-        do {
-            moneyToBeTransferred = BankTransferView.takeMoney();
-        } while (!moneyToBeTransferred.matches("[0-9]+") ||
-                Integer.parseInt(moneyToBeTransferred) > userBankAccount.getBalance());
-        return Integer.valueOf(moneyToBeTransferred);
-    }
-
-    private static void transferMoneyToOtherUserBankAccount(Integer transferredMoney,
-                                                            Integer otherUserBankAccountID) throws SQLException {
-        String SQLStatement = "call updateBankAccountBalance(?,?)";
-        updateUserBankAccountTable(SQLStatement, transferredMoney, otherUserBankAccountID);
+    public static BankPosting transfer(String username, Integer bankAccountID, Integer otherBankAccountID,
+                                       Integer transferredMoney) throws SQLException {
+        return transfer(username, bankAccountID, otherBankAccountID, transferredMoney, null);
     }
 
-    private static void withdrawMoneyFromThisUserBankAccount(UserBankAccount userBankAccount,
-                                                             Integer transferredMoney) throws SQLException {
-        String SQLStatement = "call updateBankAccountBalance(-?,?)";
-        updateUserBankAccountTable(SQLStatement, transferredMoney, userBankAccount.getBankAccountID());
-    }
-
-    private static void updateUserBankAccountTable(String SQLStatement, Integer transferredMoney,
-                                                   Integer bankAccountID) throws SQLException {
-        try {
-            PreparedStatement statement = BankUtil.connection.prepareStatement(SQLStatement);
-            statement.setInt(1, transferredMoney);
-            statement.setInt(2, bankAccountID);
-            statement.addBatch();
-            statement.executeBatch();
-            statement.close();
-        } catch (BankException e) {
-            e.run();
+    // both balance updates, the transaction row and the log row are posted together in one round trip; a retry
+    // with the same idempotency key gets the result of the first request instead of transferring again
+    public static BankPosting transfer(String username, Integer bankAccountID, Integer otherBankAccountID,
+                                       Integer transferredMoney, String idempotencyKey) throws SQLException {
+        String request = BankIdempotencyWindow.requestOf(TransactionType.TRANSFER, bankAccountID,
+                otherBankAccountID, transferredMoney);
+        BankPosting replayed = BankPostingGuard.replay(username, idempotencyKey, request);
+        if (replayed != null) return replayed;
+        Long receivedMoney = receivedMoneyOf(bankAccountID, otherBankAccountID, transferredMoney);
+        if (receivedMoney == null) return BankPosting.rejected(BankOperationStatus.CURRENCY_NOT_CONVERTIBLE);
+        if (receivedMoney <= 0 || receivedMoney > Integer.MAX_VALUE) {
+            return BankPosting.rejected(BankOperationStatus.INVALID_AMOUNT);
         }
+        int otherAmount = receivedMoney.intValue();
+        return BankPostingGuard.post(username, idempotencyKey, request, bankAccountID, true, transferredMoney,
+                otherBankAccountID, otherAmount, () -> BankStorageEngine.get().postings().transfer(username,
+                        bankAccountID, otherBankAccountID, transferredMoney, otherAmount, idempotencyKey));
     }
 
-    public static boolean checkValidAccount(UserBankAccount userBankAccount, String otherUserBankAccountID)
+    // the transferred money in the currency of the other account, from the cached accounts (an account's
+    // currency never changes); null when there is no rate between the two currencies. An account that
+    // doesn't exist is left for the posting to reject.
+    private static Long receivedMoneyOf(Integer bankAccountID, Integer otherBankAccountID, int transferredMoney)
             throws SQLException {
-        Boolean isValidBankAccount = null;
-        try {
-            String SQLStatement = "call checkValidBankAccount(?)";
-            PreparedStatement statement = BankUtil.connection.prepareStatement(SQLStatement);
-            statement.setString(1, otherUserBankAccountID);
-            ResultSet resultSet = statement.executeQuery();
-            resultSet.next();
-            isValidBankAccount = resultSet.getBoolean("isValidBankAccount");
-            if (!isValidBankAccount) {
-                BankTransferView.showInvalidAccount();
-            }
-            statement.close();
-            resultSet.close();
-        } catch (BankException e) {
-            e.run();
-        }
-        return isValidBankAccount;
+        UserBankAccount account = BankViewAccountModel.collectUserBankAccount(bankAccountID);
+        UserBankAccount otherAccount = BankViewAccountModel.collectUserBankAccount(otherBankAccountID);
+        if (account == null || otherAccount == null) return (long) transferredMoney;
+        return BankExchangeRates.convert(transferredMoney, account.getCurrency(), otherAccount.getCurrency());
     }
 }
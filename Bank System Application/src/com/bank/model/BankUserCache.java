@@ -0,0 +1,80 @@
+package com.bank.model;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+// The profiles of the users who logged in lately, with their stored password, a bounded LRU map. A user
+// logging in again within bank.userCache.timeToLiveMillis is checked without a query. The application's own
+// changes of a profile or a password invalidate it; the short time to live bounds how long a change made
+// elsewhere (another server, the database directly) goes unseen.
+public class BankUserCache {
+    private BankUserCache() {
+    }
+
+    private static final int maximumUsers = Integer.getInteger("bank.userCache.maximumUsers", 10_000);
+    private static final long timeToLiveMillis = Long.getLong("bank.userCache.timeToLiveMillis", 30_000L);
+
+    private static final ReentrantLock lock = new ReentrantLock();
+    private static final LongAdder hits = new LongAdder();
+    private static final LongAdder misses = new LongAdder();
+    private static final Map<String, CachedUser> usersByUsername = new LinkedHashMap<>(256, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, CachedUser> eldest) {
+            return size() > maximumUsers;
+        }
+    };
+
+    // the user with the stored password, null when not cached
+    public static User getUser(String username) {
+        lock.lock();
+        try {
+            CachedUser cachedUser = usersByUsername.get(username);
+            if (cachedUser != null && System.currentTimeMillis() - cachedUser.loadedAt >= timeToLiveMillis) {
+                usersByUsername.remove(username);
+                cachedUser = null;
+            }
+            (cachedUser != null ? hits : misses).increment();
+            return cachedUser == null ? null : cachedUser.user;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public static void putUser(User user) {
+        lock.lock();
+        try {
+            usersByUsername.put(user.getUsername(), new CachedUser(user, System.currentTimeMillis()));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public static void invalidateUser(String username) {
+        lock.lock();
+        try {
+            usersByUsername.remove(username);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public static long getHits() {
+        return hits.sum();
+    }
+
+    public static long getMisses() {
+        return misses.sum();
+    }
+
+    private static class CachedUser {
+        private final User user;
+        private final long loadedAt;
+
+        private CachedUser(User user, long loadedAt) {
+            this.user = user;
+            this.loadedAt = loadedAt;
+        }
+    }
+}
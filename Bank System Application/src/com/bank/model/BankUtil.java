@@ -1,10 +1,8 @@
 package com.bank.model;
 
-import com.bank.controller.BankException;
+import com.bank.storage.BankStorageEngine;
 
-import java.sql.Connection;
-import java.sql.DriverManager;
-import java.sql.PreparedStatement;
+import java.io.PrintStream;
 import java.sql.SQLException;
 import java.util.Arrays;
 import java.util.Scanner;
@@ -13,19 +11,12 @@ public class BankUtil {
     private BankUtil() {
     }
 
-    public static Scanner scanner;
-    public static Connection connection;
-
-    static{
-        scanner = new Scanner(System.in);
-        try {
-            String url = "jdbc:mysql://localhost:3306/bank_db";
-            String username = "root";
-            String password = "Vishal@97";
-            connection = DriverManager.getConnection(url, username, password);
-        } catch (SQLException e) {
-            throw new RuntimeException(e);
-        }
+    public static Scanner scanner() {
+        return BankSession.current().getScanner();
+    }
+
+    public static PrintStream out() {
+        return BankSession.current().getOut();
     }
 
     public static Boolean checkEmail(String email) {
@@ -78,32 +69,11 @@ public class BankUtil {
     }
 
     public static void insertIntoLogTable(Log newLog) throws SQLException {
-        try {
-            String SQLStatement = "call insertLog(?, ?)";
-            PreparedStatement statement = connection.prepareStatement(SQLStatement);
-            statement.setString(1, newLog.getUsername());
-            statement.setString(2, String.valueOf(newLog.getType().ordinal() + 1));
-            statement.addBatch();
-            statement.executeBatch();
-            statement.close();
-        } catch (BankException e) {
-            e.run();
-        }
+        BankStorageEngine.get().logs().insert(newLog);
     }
 
     public static void insertIntoTransactionsTable(Transaction transaction) throws SQLException {
-        try {
-            String SQLStatement = "call insertTransaction(?, ?, ?)";
-            PreparedStatement statement = connection.prepareStatement(SQLStatement);
-            statement.setString(1, transaction.getUsername());
-            statement.setInt(2, transaction.getAmount());
-            statement.setInt(3, transaction.getType().ordinal() + 1);
-            statement.addBatch();
-            statement.executeBatch();
-            statement.close();
-        } catch (BankException e) {
-            e.run();
-        }
+        BankStorageEngine.get().transactions().insert(transaction);
     }
 
     public static void createMessage(String paragraph) {
@@ -111,7 +81,7 @@ public class BankUtil {
         int part = (width / 2) - (paragraph.length() / 2);
         String bothSides = "-".repeat(part);
         String spaceArea = " ".repeat(3);
-        System.out.println(bothSides + spaceArea + paragraph + spaceArea + bothSides);
+        out().println(bothSides + spaceArea + paragraph + spaceArea + bothSides);
     }
 
     public static void createHeader(String paragraph) {
@@ -120,16 +90,16 @@ public class BankUtil {
         String rightSide = "<".repeat(part);
         String leftSide = ">".repeat(part);
         String spaceArea = " ".repeat(3);
-        System.out.println(rightSide + spaceArea + paragraph + spaceArea + leftSide);
+        out().println(rightSide + spaceArea + paragraph + spaceArea + leftSide);
     }
 
     public static void createOrderedList(String[] list) {
         for (int i = 0; i < list.length; ++i) {
-            System.out.println((i + 1) + "- " + list[i]);
+            out().println((i + 1) + "- " + list[i]);
         }
     }
 
     public static void showTakeFunctionNumber() {
-        System.out.print("Enter function number from the list: ");
+        out().print("Enter function number from the list: ");
     }
 }
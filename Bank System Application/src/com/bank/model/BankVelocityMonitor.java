@@ -0,0 +1,243 @@
+package com.bank.model;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.Logger;
+
+// Watches the money going in and out of every account over the last minute, hour and day, and checks each
+// deposit, withdrawal and transfer against the velocity rules before it is posted, without a query. The
+// rules come from bank.velocity.rules, comma separated, each "in|out:1m|1h|24h:count|sum:limit:flag|block",
+// e.g. "out:1m:count:10:block" blocks the 11th debit of an account within a minute. A blocked operation is
+// rejected with VELOCITY_LIMIT_REACHED, a flagged one goes through and is logged.
+//
+// Each window is a ring of buckets holding the count and the sum of the operations in the bucket's slice
+// of time; a bucket is cleared when it is reused, so nothing is ever scanned or pruned. An account takes
+// about 1.5 KB and only bank.velocity.maximumAccounts accounts are tracked, the least recently active are
+// dropped first, as are accounts idle for longer than the longest window since their buckets are all empty.
+// Checking and recording are separate steps, so concurrent operations of one account can each pass a rule
+// the two of them together break; the rules are a brake on abuse, the balance rules stay with the posting.
+public class BankVelocityMonitor {
+    private BankVelocityMonitor() {
+    }
+
+    private static final Logger logger = Logger.getLogger(BankVelocityMonitor.class.getName());
+
+    private static final boolean enabled = Boolean.parseBoolean(System.getProperty("bank.velocity.enabled",
+            "true"));
+    private static final int maximumAccounts = Integer.getInteger("bank.velocity.maximumAccounts", 50_000);
+    // 1 minute in 5 second buckets, 1 hour in 5 minute buckets and 24 hours in 1 hour buckets
+    private static final long[] bucketMillis = {5_000L, 300_000L, 3_600_000L};
+    private static final int[] bucketCounts = {12, 12, 24};
+    private static final String[] windowNames = {"1m", "1h", "24h"};
+    private static final long idleMillis = bucketMillis[2] * bucketCounts[2];
+    private static final List<Rule> rules = parseRules(System.getProperty("bank.velocity.rules",
+            "out:1m:count:10:block,out:1h:count:60:block,out:24h:sum:1000000:block,out:1h:sum:100000:flag," +
+                    "in:1h:count:60:flag"));
+
+    private static final ReentrantLock lock = new ReentrantLock();
+    private static final LongAdder checks = new LongAdder();
+    private static final LongAdder flagged = new LongAdder();
+    private static final LongAdder blocked = new LongAdder();
+    private static final Map<Integer, AccountVelocity> accountsByID = new LinkedHashMap<>(256, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, AccountVelocity> eldest) {
+            return size() > maximumAccounts
+                    || System.currentTimeMillis() - eldest.getValue().lastActiveAt >= idleMillis;
+        }
+    };
+
+    // OK or VELOCITY_LIMIT_REACHED for an operation moving the amount into or out of the account; an amount
+    // that isn't valid is left for the posting to reject
+    public static BankOperationStatus check(Integer bankAccountID, boolean outgoing, Integer amount) {
+        if (!enabled || rules.isEmpty() || amount == null || amount <= 0) return BankOperationStatus.OK;
+        checks.increment();
+        AccountVelocity velocity;
+        lock.lock();
+        try {
+            velocity = accountsByID.get(bankAccountID);
+        } finally {
+            lock.unlock();
+        }
+        Rule brokenRule = null;
+        long now = System.currentTimeMillis();
+        for (Rule rule : rules) {
+            if (rule.outgoing != outgoing) continue;
+            long value = (rule.sum ? amount : 1) + (velocity == null ? 0 : velocity.valueOf(rule, now));
+            if (value <= rule.limit) continue;
+            if (rule.block) {
+                blocked.increment();
+                logger.warning("Blocked an operation of bank account " + bankAccountID + ", it broke " + rule);
+                return BankOperationStatus.VELOCITY_LIMIT_REACHED;
+            }
+            brokenRule = rule;
+        }
+        if (brokenRule != null) {
+            flagged.increment();
+            logger.warning("Flagged an operation of bank account " + bankAccountID + ", it broke " + brokenRule);
+        }
+        return BankOperationStatus.OK;
+    }
+
+    // counts an operation that was posted, or accepted to be posted
+    public static void record(Integer bankAccountID, boolean outgoing, int amount) {
+        if (!enabled) return;
+        long now = System.currentTimeMillis();
+        AccountVelocity velocity;
+        lock.lock();
+        try {
+            velocity = accountsByID.computeIfAbsent(bankAccountID, key -> new AccountVelocity(now));
+            velocity.lastActiveAt = now;
+        } finally {
+            lock.unlock();
+        }
+        velocity.add(outgoing, amount, now);
+    }
+
+    public static long getChecks() {
+        return checks.sum();
+    }
+
+    public static long getFlagged() {
+        return flagged.sum();
+    }
+
+    public static long getBlocked() {
+        return blocked.sum();
+    }
+
+    public static int getTrackedAccounts() {
+        lock.lock();
+        try {
+            return accountsByID.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static List<Rule> parseRules(String specification) {
+        List<Rule> parsed = new ArrayList<>();
+        for (String rule : specification.split(",")) {
+            if (rule.isBlank()) continue;
+            String[] fields = rule.strip().toLowerCase(Locale.ROOT).split(":");
+            int window = fields.length == 5 ? List.of(windowNames).indexOf(fields[1]) : -1;
+            if (window < 0 || !fields[0].matches("in|out") || !fields[2].matches("count|sum")
+                    || !fields[4].matches("flag|block")) {
+                throw new IllegalArgumentException("Not a velocity rule: " + rule);
+            }
+            parsed.add(new Rule(rule.strip(), fields[0].equals("out"), window, fields[2].equals("sum"),
+                    Long.parseLong(fields[3]), fields[4].equals("block")));
+        }
+        return parsed;
+    }
+
+    private static class Rule {
+        private final String specification;
+        private final boolean outgoing;
+        private final int window;
+        private final boolean sum;
+        private final long limit;
+        private final boolean block;
+
+        private Rule(String specification, boolean outgoing, int window, boolean sum, long limit, boolean block) {
+            this.specification = specification;
+            this.outgoing = outgoing;
+            this.window = window;
+            this.sum = sum;
+            this.limit = limit;
+            this.block = block;
+        }
+
+        @Override
+        public String toString() {
+            return specification;
+        }
+    }
+
+    // the windows of the incoming money first, then those of the outgoing money
+    private static class AccountVelocity {
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Window[] windows = new Window[2 * bucketMillis.length];
+        // guarded by the monitor's lock
+        private long lastActiveAt;
+
+        private AccountVelocity(long now) {
+            // set before the map looks at the idle accounts, or a new account would be dropped right away
+            lastActiveAt = now;
+            for (int i = 0; i < windows.length; ++i) {
+                windows[i] = new Window(i % bucketMillis.length);
+            }
+        }
+
+        private long valueOf(Rule rule, long now) {
+            Window window = windows[(rule.outgoing ? bucketMillis.length : 0) + rule.window];
+            lock.lock();
+            try {
+                return rule.sum ? window.sum(now) : window.count(now);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void add(boolean outgoing, int amount, long now) {
+            lock.lock();
+            try {
+                for (int i = 0; i < bucketMillis.length; ++i) {
+                    windows[(outgoing ? bucketMillis.length : 0) + i].add(amount, now);
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    // a bucket holds the operations of the slice of time with the bucket's stamp, slices older than the
+    // window are ignored until their bucket is reused
+    private static class Window {
+        private final long bucketMillis;
+        private final int[] stamps;
+        private final int[] counts;
+        private final long[] sums;
+
+        private Window(int size) {
+            this.bucketMillis = BankVelocityMonitor.bucketMillis[size];
+            this.stamps = new int[bucketCounts[size]];
+            this.counts = new int[bucketCounts[size]];
+            this.sums = new long[bucketCounts[size]];
+        }
+
+        private void add(int amount, long now) {
+            int stamp = (int) (now / bucketMillis);
+            int bucket = Math.floorMod(stamp, stamps.length);
+            if (stamps[bucket] != stamp) {
+                stamps[bucket] = stamp;
+                counts[bucket] = 0;
+                sums[bucket] = 0;
+            }
+            ++counts[bucket];
+            sums[bucket] += amount;
+        }
+
+        private long count(long now) {
+            int oldestStamp = (int) (now / bucketMillis) - stamps.length;
+            long count = 0;
+            for (int bucket = 0; bucket < stamps.length; ++bucket) {
+                if (stamps[bucket] > oldestStamp) count += counts[bucket];
+            }
+            return count;
+        }
+
+        private long sum(long now) {
+            int oldestStamp = (int) (now / bucketMillis) - stamps.length;
+            long sum = 0;
+            for (int bucket = 0; bucket < stamps.length; ++bucket) {
+                if (stamps[bucket] > oldestStamp) sum += sums[bucket];
+            }
+            return sum;
+        }
+    }
+}
@@ -1,44 +1,25 @@
 package com.bank.model;
 
-import com.bank.controller.BankException;
+import com.bank.storage.BankStorageEngine;
 
-import java.sql.PreparedStatement;
 import java.sql.SQLException;
 
 public class BankWithdrawalModel {
-    public static void withdraw(Integer withdrawalMoney, UserBankAccount userBankAccount) throws SQLException {
-        try {
-            BankUtil.connection.setAutoCommit(false);
-            withdrawMoneyFromUserBankAccount(withdrawalMoney, userBankAccount);
-            // insert this log
-            BankUtil.insertIntoLogTable(new Log(
-                    userBankAccount.getUsername(), ActivityType.WITHDRAWAL, null
-            ));
-            // insert this transaction
-            BankUtil.insertIntoTransactionsTable(new Transaction(
-                    userBankAccount.getUsername(), withdrawalMoney, TransactionType.WITHDRAWAL, null
-            ));
-            BankUtil.connection.commit();
-        } catch (BankException e) {
-            e.run();
-            BankUtil.connection.rollback();
-        } finally {
-            BankUtil.connection.setAutoCommit(true);
-        }
+    public static BankPosting withdraw(String username, Integer bankAccountID, Integer withdrawalMoney)
+            throws SQLException {
+        return withdraw(username, bankAccountID, withdrawalMoney, null);
     }
 
-    private static void withdrawMoneyFromUserBankAccount(Integer withdrawalMoney, UserBankAccount userBankAccount)
-            throws SQLException {
-        try {
-            String SQLStatement = "call updateBankAccountBalance(-?,?)";
-            PreparedStatement statement = BankUtil.connection.prepareStatement(SQLStatement);
-            statement.setString(1, Integer.toString(withdrawalMoney));
-            statement.setString(2, Integer.toString(userBankAccount.getBankAccountID()));
-            statement.addBatch();
-            statement.executeBatch();
-            statement.close();
-        } catch (BankException e) {
-            e.run();
-        }
+    // the balance update, the transaction row and the log row are posted together in one round trip; a retry
+    // with the same idempotency key gets the result of the first request instead of withdrawing again
+    public static BankPosting withdraw(String username, Integer bankAccountID, Integer withdrawalMoney,
+                                       String idempotencyKey) throws SQLException {
+        String request = BankIdempotencyWindow.requestOf(TransactionType.WITHDRAWAL, bankAccountID, null,
+                withdrawalMoney);
+        BankPosting replayed = BankPostingGuard.replay(username, idempotencyKey, request);
+        if (replayed != null) return replayed;
+        return BankPostingGuard.post(username, idempotencyKey, request, bankAccountID, true, withdrawalMoney, null,
+                null, () -> BankStorageEngine.get().postings().withdraw(username, bankAccountID, withdrawalMoney,
+                        idempotencyKey));
     }
 }
@@ -8,10 +8,10 @@ public enum Currency {
 
     public static void showAll() {
         BankUtil.createMessage("There are 4 types of currencies");
-        System.out.println(Currency.DOLLAR);
-        System.out.println(Currency.EURO);
-        System.out.println(Currency.JapaneseYen);
-        System.out.println(Currency.GreatBritishPound);
+        BankUtil.out().println(Currency.DOLLAR);
+        BankUtil.out().println(Currency.EURO);
+        BankUtil.out().println(Currency.JapaneseYen);
+        BankUtil.out().println(Currency.GreatBritishPound);
     }
 
     public static Currency typeInIndex(Integer index) {
@@ -31,6 +31,10 @@ public enum Currency {
         return symbol;
     }
 
+    public String getName() {
+        return name;
+    }
+
     @Override
     public String toString() {
         return (ordinal() + 1) + "- " + name + " (" + symbol + ")";
@@ -1,16 +1,26 @@
 package com.bank.model;
 
 public class Log {
+    private final Integer id;
     private final String username;
     private final ActivityType type;
     String createdAt;
 
     public Log(String username, ActivityType type, String createdAt) {
+        this(null, username, type, createdAt);
+    }
+
+    public Log(Integer id, String username, ActivityType type, String createdAt) {
+        this.id = id;
         this.username = username;
         this.type = type;
         this.createdAt = createdAt;
     }
 
+    public Integer getId() {
+        return id;
+    }
+
     public String getUsername() {
         return username;
     }
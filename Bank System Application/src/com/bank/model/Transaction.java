@@ -1,22 +1,45 @@
 package com.bank.model;
 
 public class Transaction {
+    private final Integer id;
     private final String username;
+    // null for rows written before transactions were recorded per account
+    private final Integer bankAccountID;
     private final Integer amount;
     private final TransactionType type;
     private final String createdAt;
 
     public Transaction(String username, Integer amount, TransactionType type, String createdAt) {
+        this(null, username, amount, type, createdAt);
+    }
+
+    public Transaction(Integer id, String username, Integer amount, TransactionType type, String createdAt) {
+        this(id, username, null, amount, type, createdAt);
+    }
+
+    // a TRANSFER amount is negative on the sending account and positive on the receiving one
+    public Transaction(Integer id, String username, Integer bankAccountID, Integer amount, TransactionType type,
+                       String createdAt) {
+        this.id = id;
         this.username = username;
+        this.bankAccountID = bankAccountID;
         this.amount = amount;
         this.type = type;
         this.createdAt = createdAt;
     }
 
+    public Integer getId() {
+        return id;
+    }
+
     public String getUsername() {
         return username;
     }
 
+    public Integer getBankAccountID() {
+        return bankAccountID;
+    }
+
     public TransactionType getType() {
         return type;
     }
@@ -25,6 +48,10 @@ public class Transaction {
         return amount;
     }
 
+    public String getCreatedAt() {
+        return createdAt;
+    }
+
     @Override
     public String toString() {
         return "This transaction of type (" + type.name + ")\n" +
@@ -3,7 +3,9 @@ package com.bank.model;
 public enum TransactionType {
     DEPOSIT("Deposit"),
     WITHDRAWAL("Withdrawal"),
-    TRANSFER("Transfer");
+    TRANSFER("Transfer"),
+    // credited by BankInterestEngine, never posted by a user
+    INTEREST("Interest");
     public final String name;
 
     TransactionType(String name) {
@@ -50,6 +50,20 @@ public class UserBankAccount {
         return withdrawalLimit;
     }
 
+    public String getCreatedAt() {
+        return createdAt;
+    }
+
+    public UserBankAccount withBalance(Integer balance, Integer withdrawalLimit) {
+        return new UserBankAccount(username, bankAccountID, type, currency, status, balance, withdrawalLimit,
+                createdAt);
+    }
+
+    public UserBankAccount withStatus(BankAccountStatus status) {
+        return new UserBankAccount(username, bankAccountID, type, currency, status, balance, withdrawalLimit,
+                createdAt);
+    }
+
     @Override
     public String toString() {
         return "This Bank Account of type (" + type.name + ")\n" +
@@ -0,0 +1,49 @@
+package com.bank.service;
+
+import com.bank.model.BankBatchTransferModel;
+import com.bank.model.BankOperationStatus;
+import com.bank.model.BankTransferInstruction;
+
+import java.sql.SQLException;
+import java.util.List;
+
+// Runs bulk transfers such as payroll or settlement runs. There is no user behind a batch, so the sending
+// accounts are not checked against an owner; whoever submits the batch is trusted with every account in it.
+// A batch that loses a deadlock or times out waiting for a lock is rolled back as a whole and retried like
+// a single transfer.
+public class BankBatchTransferEngine {
+    private BankBatchTransferEngine() {
+    }
+
+    // every instruction locks up to two accounts and MySQL allows 65535 placeholders in one statement
+    private static final int maximumInstructions = Integer.getInteger("bank.batchTransfer.maximumInstructions",
+            10_000);
+
+    public static BankBatchTransferReport transfer(List<BankTransferInstruction> instructions)
+            throws SQLException {
+        if (instructions.size() > maximumInstructions) {
+            throw new IllegalArgumentException("A batch has at most " + maximumInstructions + " instructions");
+        }
+        long startedAt = System.nanoTime();
+        for (int attempt = 1; ; ++attempt) {
+            try {
+                List<BankOperationStatus> statuses = BankBatchTransferModel.transfer(instructions);
+                return new BankBatchTransferReport(statuses, transferredMoneyOf(instructions, statuses),
+                        System.nanoTime() - startedAt);
+            } catch (SQLException e) {
+                if (attempt >= BankTransferEngine.maximumAttempts || !BankTransferEngine.isRetryable(e)) throw e;
+                BankTransferEngine.countRetry();
+                BankTransferEngine.sleepBeforeRetry(attempt);
+            }
+        }
+    }
+
+    private static long transferredMoneyOf(List<BankTransferInstruction> instructions,
+                                           List<BankOperationStatus> statuses) {
+        long transferredMoney = 0;
+        for (int i = 0; i < instructions.size(); ++i) {
+            if (statuses.get(i) == BankOperationStatus.OK) transferredMoney += instructions.get(i).getAmount();
+        }
+        return transferredMoney;
+    }
+}
@@ -0,0 +1,47 @@
+package com.bank.service;
+
+import com.bank.model.BankOperationStatus;
+
+import java.util.List;
+
+public class BankBatchTransferReport {
+    private final List<BankOperationStatus> statuses;
+    private final long transferredMoney;
+    private final long elapsedNanos;
+
+    BankBatchTransferReport(List<BankOperationStatus> statuses, long transferredMoney, long elapsedNanos) {
+        this.statuses = statuses;
+        this.transferredMoney = transferredMoney;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    // one status per instruction, in the order of the instructions
+    public List<BankOperationStatus> getStatuses() {
+        return statuses;
+    }
+
+    public int getAccepted() {
+        return (int) statuses.stream().filter(status -> status == BankOperationStatus.OK).count();
+    }
+
+    public int getRejected() {
+        return statuses.size() - getAccepted();
+    }
+
+    public long getTransferredMoney() {
+        return transferredMoney;
+    }
+
+    public double getInstructionsPerSecond() {
+        return elapsedNanos == 0 ? 0 : statuses.size() * 1e9 / elapsedNanos;
+    }
+
+    @Override
+    public String toString() {
+        return "Instructions: (" + statuses.size() + "), accepted: (" + getAccepted() + "), rejected: (" +
+                getRejected() + ")\n" +
+                "Transferred money: (" + transferredMoney + ")\n" +
+                "Elapsed time: (" + String.format("%.1f", elapsedNanos / 1e6) + " ms)\n" +
+                "Throughput: (" + String.format("%.0f", getInstructionsPerSecond()) + " instructions/s)\n";
+    }
+}
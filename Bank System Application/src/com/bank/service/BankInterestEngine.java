@@ -0,0 +1,149 @@
+package com.bank.service;
+
+import com.bank.model.BankInterestCheckpoint;
+import com.bank.model.BankInterestModel;
+import com.bank.storage.BankStorage;
+import com.bank.storage.BankStorageEngine;
+
+import java.io.Serial;
+import java.sql.SQLException;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.logging.Logger;
+
+// Credits the monthly interest of every account. The ids up to the highest one are cut into chunks of
+// bank.interest.chunkSize consecutive ids, and a fork-join pool of bank.interest.parallelism threads credits
+// the chunks, each in its own transaction together with its checkpoint (see BankInterestModel). A run that
+// stopped halfway, or failed on some chunks, is resumed by running the same period again: the chunks with a
+// checkpoint are skipped and no account is credited twice, even if the chunk size changed in between.
+public class BankInterestEngine {
+    private BankInterestEngine() {
+    }
+
+    private static final Logger logger = Logger.getLogger(BankInterestEngine.class.getName());
+    private static final int chunkSize = Integer.getInteger("bank.interest.chunkSize", 5_000);
+    // every thread holds a pooled connection while it credits a chunk
+    private static final int parallelism = Integer.getInteger("bank.interest.parallelism",
+            Runtime.getRuntime().availableProcessors());
+
+    public static BankInterestReport accrue(YearMonth period) throws SQLException {
+        long startedAt = System.nanoTime();
+        BankStorage storage = BankStorageEngine.get();
+        Integer maximumBankAccountID = storage.accounts().findMaximumID();
+        if (maximumBankAccountID == null) {
+            return new BankInterestReport(period, 0, 0, 0, 0, System.nanoTime() - startedAt);
+        }
+        int chunks = (maximumBankAccountID + chunkSize - 1) / chunkSize;
+        // the chunks a previous run finished are skipped without starting a transaction
+        List<BankInterestCheckpoint> checkpoints = storage.interest().findCheckpoints(period.toString(), 1,
+                maximumBankAccountID);
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        ChunkResults results;
+        try {
+            results = pool.invoke(new CreditChunks(period.toString(), checkpoints, 0, chunks));
+        } finally {
+            pool.shutdown();
+        }
+        if (!results.failures.isEmpty()) {
+            SQLException failure = new SQLException(results.failures.size() + " of " + chunks + " chunks of the " +
+                    period + " interest failed, run the period again to credit them", results.failures.get(0));
+            for (int i = 1; i < results.failures.size(); ++i) {
+                failure.addSuppressed(results.failures.get(i));
+            }
+            throw failure;
+        }
+        BankInterestReport report = new BankInterestReport(period, results.creditedChunks, results.skippedChunks,
+                results.accounts, results.interest, System.nanoTime() - startedAt);
+        logger.info("Interest of " + period + " credited: " + report.getAccounts() + " accounts, " +
+                report.getInterest() + " in total");
+        return report;
+    }
+
+    private static ChunkResults creditChunk(String period, List<BankInterestCheckpoint> checkpoints, int chunk) {
+        int firstBankAccountID = chunk * chunkSize + 1;
+        int lastBankAccountID = firstBankAccountID + chunkSize - 1;
+        ChunkResults results = new ChunkResults();
+        for (BankInterestCheckpoint checkpoint : checkpoints) {
+            if (checkpoint.covers(firstBankAccountID) && checkpoint.covers(lastBankAccountID)) {
+                results.skippedChunks = 1;
+                return results;
+            }
+        }
+        for (int attempt = 1; ; ++attempt) {
+            try {
+                BankInterestCheckpoint checkpoint = BankInterestModel.credit(period, firstBankAccountID,
+                        lastBankAccountID);
+                if (checkpoint == null) {
+                    results.skippedChunks = 1;
+                } else {
+                    results.creditedChunks = 1;
+                    results.accounts = checkpoint.getAccounts();
+                    results.interest = checkpoint.getInterest();
+                }
+                return results;
+            } catch (SQLException e) {
+                if (attempt >= BankTransferEngine.maximumAttempts || !BankTransferEngine.isRetryable(e)) {
+                    results.failures.add(e);
+                    return results;
+                }
+                BankTransferEngine.countRetry();
+                try {
+                    BankTransferEngine.sleepBeforeRetry(attempt);
+                } catch (SQLException interrupted) {
+                    results.failures.add(interrupted);
+                    return results;
+                }
+            }
+        }
+    }
+
+    // the chunks from first (inclusive) to last (exclusive), split in halves down to single chunks
+    private static class CreditChunks extends RecursiveTask<ChunkResults> {
+        @Serial
+        private static final long serialVersionUID = 1L;
+
+        private final String period;
+        private final List<BankInterestCheckpoint> checkpoints;
+        private final int firstChunk;
+        private final int lastChunk;
+
+        private CreditChunks(String period, List<BankInterestCheckpoint> checkpoints, int firstChunk,
+                             int lastChunk) {
+            this.period = period;
+            this.checkpoints = checkpoints;
+            this.firstChunk = firstChunk;
+            this.lastChunk = lastChunk;
+        }
+
+        @Override
+        protected ChunkResults compute() {
+            if (lastChunk - firstChunk == 1) return creditChunk(period, checkpoints, firstChunk);
+            int middle = (firstChunk + lastChunk) >>> 1;
+            CreditChunks left = new CreditChunks(period, checkpoints, firstChunk, middle);
+            CreditChunks right = new CreditChunks(period, checkpoints, middle, lastChunk);
+            left.fork();
+            ChunkResults results = right.compute();
+            return results.add(left.join());
+        }
+    }
+
+    private static class ChunkResults {
+        private int creditedChunks;
+        private int skippedChunks;
+        private long accounts;
+        private long interest;
+        private final List<SQLException> failures = new ArrayList<>();
+
+        private ChunkResults add(ChunkResults other) {
+            creditedChunks += other.creditedChunks;
+            skippedChunks += other.skippedChunks;
+            accounts += other.accounts;
+            interest += other.interest;
+            failures.addAll(other.failures);
+            return this;
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.bank.service;
+
+import java.time.YearMonth;
+
+public class BankInterestReport {
+    private final YearMonth period;
+    private final int creditedChunks;
+    private final int skippedChunks;
+    private final long accounts;
+    private final long interest;
+    private final long elapsedNanos;
+
+    BankInterestReport(YearMonth period, int creditedChunks, int skippedChunks, long accounts, long interest,
+                       long elapsedNanos) {
+        this.period = period;
+        this.creditedChunks = creditedChunks;
+        this.skippedChunks = skippedChunks;
+        this.accounts = accounts;
+        this.interest = interest;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    public YearMonth getPeriod() {
+        return period;
+    }
+
+    // the chunks credited by this run
+    public int getCreditedChunks() {
+        return creditedChunks;
+    }
+
+    // the chunks an earlier run of the period had already credited
+    public int getSkippedChunks() {
+        return skippedChunks;
+    }
+
+    // the accounts credited by this run
+    public long getAccounts() {
+        return accounts;
+    }
+
+    public long getInterest() {
+        return interest;
+    }
+
+    public double getAccountsPerSecond() {
+        return elapsedNanos == 0 ? 0 : accounts * 1e9 / elapsedNanos;
+    }
+
+    @Override
+    public String toString() {
+        return "Interest of: (" + period + ")\n" +
+                "Chunks credited: (" + creditedChunks + "), already credited: (" + skippedChunks + ")\n" +
+                "Accounts credited: (" + accounts + "), interest: (" + interest + ")\n" +
+                "Elapsed time: (" + String.format("%.1f", elapsedNanos / 1e6) + " ms)\n" +
+                "Throughput: (" + String.format("%.0f", getAccountsPerSecond()) + " accounts/s)\n";
+    }
+}
@@ -0,0 +1,46 @@
+package com.bank.service;
+
+import com.bank.model.BankOperationStatus;
+import com.bank.model.UserBankAccount;
+
+public class BankOperationResult {
+    private final BankOperationStatus status;
+    private final UserBankAccount account;
+    private final String idempotencyKey;
+
+    BankOperationResult(BankOperationStatus status, UserBankAccount account) {
+        this(status, account, null);
+    }
+
+    private BankOperationResult(BankOperationStatus status, UserBankAccount account, String idempotencyKey) {
+        this.status = status;
+        this.account = account;
+        this.idempotencyKey = idempotencyKey;
+    }
+
+    static BankOperationResult rejected(BankOperationStatus status) {
+        return new BankOperationResult(status, null);
+    }
+
+    static BankOperationResult accepted(String idempotencyKey) {
+        return new BankOperationResult(BankOperationStatus.ACCEPTED, null, idempotencyKey);
+    }
+
+    public BankOperationStatus getStatus() {
+        return status;
+    }
+
+    public boolean isOk() {
+        return status == BankOperationStatus.OK;
+    }
+
+    // the account as committed by the operation, null when it was rejected or the id isn't known yet
+    public UserBankAccount getAccount() {
+        return account;
+    }
+
+    // the key an accepted operation was journaled under, the same request retried with it gets the outcome
+    public String getIdempotencyKey() {
+        return idempotencyKey;
+    }
+}
@@ -0,0 +1,26 @@
+package com.bank.service;
+
+import java.util.List;
+
+public class BankPage<T> {
+    private final List<T> items;
+    private final Integer nextBeforeID;
+
+    BankPage(List<T> items, Integer nextBeforeID) {
+        this.items = items;
+        this.nextBeforeID = nextBeforeID;
+    }
+
+    public List<T> getItems() {
+        return items;
+    }
+
+    // pass it back as beforeID to get the next page, null when this page is the last one
+    public Integer getNextBeforeID() {
+        return nextBeforeID;
+    }
+
+    public boolean hasNext() {
+        return nextBeforeID != null;
+    }
+}
@@ -0,0 +1,201 @@
+package com.bank.service;
+
+import com.bank.model.BankAccountStatus;
+import com.bank.model.BankAccountType;
+import com.bank.model.BankDepositModel;
+import com.bank.model.BankExchangeRates;
+import com.bank.model.BankLedgerModel;
+import com.bank.model.BankLoginModel;
+import com.bank.model.BankLoginThrottle;
+import com.bank.model.BankLogsModel;
+import com.bank.model.BankOpenAccountModel;
+import com.bank.model.BankOperationStatus;
+import com.bank.model.BankPosting;
+import com.bank.model.BankPostingGuard;
+import com.bank.model.BankStatementBalances;
+import com.bank.model.BankTransactionsModel;
+import com.bank.model.BankTransferInstruction;
+import com.bank.model.BankViewAccountModel;
+import com.bank.model.BankWithdrawalModel;
+import com.bank.model.Currency;
+import com.bank.model.Log;
+import com.bank.model.Transaction;
+import com.bank.model.User;
+import com.bank.model.UserBankAccount;
+import com.bank.storage.BankStorageEngine;
+
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.function.Function;
+
+// The operations of the application with plain arguments and results and without any console input, so a
+// transaction only ever spans the work itself. The controllers collect and validate the input first and
+// then call in here; anything else (benchmarks, a network front end) can drive the same rules directly.
+// Every money operation checks the account belongs to the given user and checks the rules against the
+// locked account inside its posting, whatever the caller saw before.
+public class BankService {
+    private BankService() {
+    }
+
+    // starts the storage and the work the application does in the background; a journaled posting that
+    // reaches the database later is reported to the model, which drops the accounts it changed from the cache
+    public static void start() throws SQLException {
+        BankStorageEngine.listen(BankPostingGuard::posted);
+        BankStorageEngine.get().start();
+        BankWithdrawalLimitResetter.start();
+    }
+
+    public static void shutdown() {
+        BankWithdrawalLimitResetter.shutdown();
+        BankStorageEngine.get().shutdown();
+    }
+
+    public static User login(String username, String password) throws SQLException {
+        return login(username, password, null);
+    }
+
+    // null when the username or the password is wrong, or when there were too many attempts for the username
+    // or from the client (its address, null for the console) lately; the caller can't tell which, neither
+    // can someone guessing passwords
+    public static User login(String username, String password, String client) throws SQLException {
+        if (!BankLoginThrottle.admit(username, client)) return null;
+        return BankLoginModel.authenticate(username, password);
+    }
+
+    public static List<UserBankAccount> accounts(User user) throws SQLException {
+        return BankViewAccountModel.collectUserBankAccounts(user);
+    }
+
+    // the balances of all of the user's accounts converted to the currency, null when one of them can't be
+    public static Long totalBalance(User user, Currency currency) throws SQLException {
+        long total = 0;
+        for (UserBankAccount account : BankViewAccountModel.collectUserBankAccounts(user)) {
+            Long balance = BankExchangeRates.convert(account.getBalance(), account.getCurrency(), currency);
+            if (balance == null) return null;
+            total += balance;
+        }
+        return total;
+    }
+
+    public static BankOperationResult openAccount(String username, BankAccountType type, Currency currency,
+                                                  int balance) throws SQLException {
+        if (!type.checkValidBalance(balance)) {
+            return BankOperationResult.rejected(BankOperationStatus.INVALID_AMOUNT);
+        }
+        BankOpenAccountModel.saveNewAccount(username, new UserBankAccount(username, null, type, currency,
+                BankAccountStatus.PENDING, balance, null, null));
+        return new BankOperationResult(BankOperationStatus.OK, null);
+    }
+
+    public static BankOperationResult deposit(String username, Integer bankAccountID, int amount)
+            throws SQLException {
+        return deposit(username, bankAccountID, amount, null);
+    }
+
+    // idempotencyKey identifies the request (e.g. a UUID picked by the client) so it can be retried safely
+    // after a timeout, null when the client never retries
+    public static BankOperationResult deposit(String username, Integer bankAccountID, int amount,
+                                              String idempotencyKey) throws SQLException {
+        return resultOf(BankDepositModel.deposit(username, bankAccountID, amount, idempotencyKey), bankAccountID);
+    }
+
+    public static BankOperationResult withdraw(String username, Integer bankAccountID, int amount)
+            throws SQLException {
+        return withdraw(username, bankAccountID, amount, null);
+    }
+
+    public static BankOperationResult withdraw(String username, Integer bankAccountID, int amount,
+                                               String idempotencyKey) throws SQLException {
+        return resultOf(BankWithdrawalModel.withdraw(username, bankAccountID, amount, idempotencyKey),
+                bankAccountID);
+    }
+
+    public static BankOperationResult transfer(String username, Integer bankAccountID,
+                                               Integer otherBankAccountID, int amount) throws SQLException {
+        return transfer(username, bankAccountID, otherBankAccountID, amount, null);
+    }
+
+    public static BankOperationResult transfer(String username, Integer bankAccountID,
+                                               Integer otherBankAccountID, int amount, String idempotencyKey)
+            throws SQLException {
+        return resultOf(BankTransferEngine.transfer(username, bankAccountID, otherBankAccountID, amount,
+                idempotencyKey), bankAccountID);
+    }
+
+    // one status per instruction; accounts are not checked against an owner, see BankBatchTransferEngine
+    public static BankBatchTransferReport transferBatch(List<BankTransferInstruction> instructions)
+            throws SQLException {
+        return BankBatchTransferEngine.transfer(instructions);
+    }
+
+    // month-end interest of every account; running a period again resumes it, see BankInterestEngine
+    public static BankInterestReport accrueInterest(YearMonth period) throws SQLException {
+        return BankInterestEngine.accrue(period);
+    }
+
+    public static BankOperationStatus checkTransferTarget(Integer bankAccountID, Integer otherBankAccountID)
+            throws SQLException {
+        if (otherBankAccountID.equals(bankAccountID)) return BankOperationStatus.SAME_ACCOUNT;
+        UserBankAccount otherAccount = BankViewAccountModel.collectUserBankAccount(otherBankAccountID);
+        if (otherAccount == null || otherAccount.getStatus() != BankAccountStatus.ACTIVE) {
+            return BankOperationStatus.OTHER_ACCOUNT_NOT_VALID;
+        }
+        return BankOperationStatus.OK;
+    }
+
+    // the balance made of the changes before the given time; null when the account isn't one of the user's or
+    // didn't exist yet
+    public static Integer balanceAsOf(String username, Integer bankAccountID, LocalDateTime time)
+            throws SQLException {
+        if (!isOwnAccount(username, bankAccountID)) return null;
+        return BankLedgerModel.collectBalanceBefore(bankAccountID, time);
+    }
+
+    // of the period from (inclusive) to (exclusive); null when the account isn't one of the user's
+    public static BankStatementBalances statementBalances(String username, Integer bankAccountID,
+                                                          LocalDateTime from, LocalDateTime to)
+            throws SQLException {
+        if (!isOwnAccount(username, bankAccountID)) return null;
+        return BankLedgerModel.collectStatementBalances(bankAccountID, from, to);
+    }
+
+    // newest first, beforeID is BankPage.getNextBeforeID() of the previous page or null for the first page
+    public static BankPage<Transaction> history(String username, int limit, Integer beforeID)
+            throws SQLException {
+        return pageOf(BankTransactionsModel.collectTransactions(username, limit + 1, beforeID), limit,
+                Transaction::getId);
+    }
+
+    // of one of the user's accounts; an empty page for an account that isn't the user's
+    public static BankPage<Transaction> accountHistory(String username, Integer bankAccountID, int limit,
+                                                       Integer beforeID) throws SQLException {
+        if (!isOwnAccount(username, bankAccountID)) return new BankPage<>(List.of(), null);
+        return pageOf(BankTransactionsModel.collectAccountTransactions(bankAccountID, limit + 1, beforeID), limit,
+                Transaction::getId);
+    }
+
+    public static BankPage<Log> logs(String username, int limit, Integer beforeID) throws SQLException {
+        return pageOf(BankLogsModel.collectLogs(username, limit + 1, beforeID), limit, Log::getId);
+    }
+
+    private static BankOperationResult resultOf(BankPosting posting, Integer bankAccountID) throws SQLException {
+        if (posting.isPending()) return BankOperationResult.accepted(posting.getIdempotencyKey());
+        if (!posting.isPosted()) return BankOperationResult.rejected(posting.getStatus());
+        return new BankOperationResult(posting.getStatus(),
+                BankViewAccountModel.collectUserBankAccount(bankAccountID));
+    }
+
+    private static boolean isOwnAccount(String username, Integer bankAccountID) throws SQLException {
+        UserBankAccount account = BankViewAccountModel.collectUserBankAccount(bankAccountID);
+        return account != null && account.getUsername().equals(username);
+    }
+
+    // items holds up to one row more than the page, which is only there to tell that a next page exists
+    private static <T> BankPage<T> pageOf(List<T> items, int limit, Function<T, Integer> idOf) {
+        if (items.size() <= limit) return new BankPage<>(items, null);
+        List<T> page = items.subList(0, limit);
+        return new BankPage<>(page, idOf.apply(page.get(limit - 1)));
+    }
+}
@@ -0,0 +1,85 @@
+package com.bank.service;
+
+import com.bank.model.BankOperationStatus;
+import com.bank.model.BankPosting;
+import com.bank.model.BankTransferModel;
+
+import java.sql.SQLException;
+import java.sql.SQLTransactionRollbackException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+// Moves money between two accounts without trusting anything read before the transaction: the posting
+// locks both accounts in ascending id order, so two opposite transfers queue up instead of deadlocking, and
+// checks the rules against the locked rows. A transfer the database still picks as a deadlock victim or
+// that times out waiting for a lock (e.g. behind a long-running statement) is retried with a short,
+// growing and jittered pause.
+public class BankTransferEngine {
+    private BankTransferEngine() {
+    }
+
+    static final int maximumAttempts = Integer.getInteger("bank.transfer.maximumAttempts", 5);
+    private static final long backoffMillis = Long.getLong("bank.transfer.backoffMillis", 5L);
+    private static final long maximumBackoffMillis = 200;
+    // ER_LOCK_DEADLOCK and ER_LOCK_WAIT_TIMEOUT
+    private static final int deadlockErrorCode = 1213;
+    private static final int lockWaitTimeoutErrorCode = 1205;
+
+    private static final LongAdder retries = new LongAdder();
+
+    public static BankPosting transfer(String username, Integer bankAccountID, Integer otherBankAccountID,
+                                       int amount) throws SQLException {
+        return transfer(username, bankAccountID, otherBankAccountID, amount, null);
+    }
+
+    // a retried attempt was rolled back together with its idempotency key, so it may claim the key again
+    public static BankPosting transfer(String username, Integer bankAccountID, Integer otherBankAccountID,
+                                       int amount, String idempotencyKey) throws SQLException {
+        for (int attempt = 1; ; ++attempt) {
+            try {
+                return tryTransfer(username, bankAccountID, otherBankAccountID, amount, idempotencyKey);
+            } catch (SQLException e) {
+                if (attempt >= maximumAttempts || !isRetryable(e)) throw e;
+                countRetry();
+                sleepBeforeRetry(attempt);
+            }
+        }
+    }
+
+    // of single and batch transfers
+    public static long getRetries() {
+        return retries.sum();
+    }
+
+    static void countRetry() {
+        retries.increment();
+    }
+
+    private static BankPosting tryTransfer(String username, Integer bankAccountID, Integer otherBankAccountID,
+                                           int amount, String idempotencyKey) throws SQLException {
+        if (amount <= 0) return BankPosting.rejected(BankOperationStatus.INVALID_AMOUNT);
+        if (otherBankAccountID.equals(bankAccountID)) return BankPosting.rejected(BankOperationStatus.SAME_ACCOUNT);
+        return BankTransferModel.transfer(username, bankAccountID, otherBankAccountID, amount, idempotencyKey);
+    }
+
+    static boolean isRetryable(SQLException e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof SQLTransactionRollbackException) return true;
+            if (cause instanceof SQLException sqlException && (sqlException.getErrorCode() == deadlockErrorCode
+                    || sqlException.getErrorCode() == lockWaitTimeoutErrorCode)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    static void sleepBeforeRetry(int attempt) throws SQLException {
+        long pause = Math.min(maximumBackoffMillis, backoffMillis << (attempt - 1));
+        try {
+            Thread.sleep(pause + ThreadLocalRandom.current().nextLong(backoffMillis + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting to retry a transfer", e);
+        }
+    }
+}
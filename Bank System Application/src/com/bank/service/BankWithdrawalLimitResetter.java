@@ -0,0 +1,154 @@
+package com.bank.service;
+
+import com.bank.model.BankAccountCache;
+import com.bank.storage.BankAccountRepository;
+import com.bank.storage.BankStorageEngine;
+
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+// Gives every account the withdrawal limit of its type again once bank.withdrawalLimitReset.periodDays have
+// passed since its last reset, in place of a database event updating every due row in one statement. A sweep
+// walks the account ids in windows of bank.withdrawalLimitReset.batchSize, oldest id first: each window is a
+// non-locking primary key range read, and only the due rows of it are updated, by id, in their own short
+// statement. The windows are spread over bank.withdrawalLimitReset.sweepMillis, at least minimumPauseMillis
+// apart and slowed down further so no more than maximumResetsPerSecond rows are reset, so an account is
+// reset at most one sweep late and the hot rows are never locked for long. It runs between start() and
+// shutdown(), which the application calls around the storage's, on whatever storage is in use.
+public class BankWithdrawalLimitResetter {
+    private BankWithdrawalLimitResetter() {
+    }
+
+    private static final Logger logger = Logger.getLogger(BankWithdrawalLimitResetter.class.getName());
+
+    private static final int periodDays = Integer.getInteger("bank.withdrawalLimitReset.periodDays", 30);
+    private static final int batchSize = Integer.getInteger("bank.withdrawalLimitReset.batchSize", 500);
+    private static final long sweepMillis = Long.getLong("bank.withdrawalLimitReset.sweepMillis", 3_600_000L);
+    private static final long minimumPauseMillis = Long.getLong("bank.withdrawalLimitReset.minimumPauseMillis",
+            20L);
+    private static final int maximumResetsPerSecond = Integer.getInteger(
+            "bank.withdrawalLimitReset.maximumResetsPerSecond", 2_000);
+    private static final long failurePauseMillis = 1_000;
+
+    private static final LongAdder sweeps = new LongAdder();
+    private static final LongAdder batches = new LongAdder();
+    private static final LongAdder resets = new LongAdder();
+    private static final LongAdder failures = new LongAdder();
+    private static ScheduledExecutorService scheduler;
+    // the sweep in progress, only touched by the scheduler thread
+    private static long sweepStartedAt;
+    private static int maximumBankAccountID;
+    private static int nextBankAccountID;
+    private static long windowPauseMillis;
+
+    public static synchronized void start() {
+        if (scheduler != null) return;
+        scheduler = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "bank-withdrawal-limit-resetter");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.execute(BankWithdrawalLimitResetter::beginSweep);
+    }
+
+    public static synchronized void shutdown() {
+        if (scheduler == null) return;
+        scheduler.shutdownNow();
+        scheduler = null;
+    }
+
+    // resets every due account right away, without pausing between windows; returns how many were reset
+    public static int sweep() throws SQLException {
+        Integer maximumID = BankStorageEngine.get().accounts().findMaximumID();
+        int reset = 0;
+        for (int first = 1; maximumID != null && first <= maximumID; first += batchSize) {
+            reset += resetWindow(first, Math.min(maximumID, first + batchSize - 1));
+        }
+        sweeps.increment();
+        return reset;
+    }
+
+    public static long getSweeps() {
+        return sweeps.sum();
+    }
+
+    public static long getBatches() {
+        return batches.sum();
+    }
+
+    public static long getResets() {
+        return resets.sum();
+    }
+
+    public static long getFailures() {
+        return failures.sum();
+    }
+
+    // looks up the ids the sweep goes up to and spreads its windows over the sweep interval
+    private static void beginSweep() {
+        try {
+            Integer maximumID = BankStorageEngine.get().accounts().findMaximumID();
+            sweepStartedAt = System.currentTimeMillis();
+            if (maximumID == null) {
+                schedule(BankWithdrawalLimitResetter::beginSweep, sweepMillis);
+                return;
+            }
+            maximumBankAccountID = maximumID;
+            nextBankAccountID = 1;
+            long windows = (maximumBankAccountID + batchSize - 1) / batchSize;
+            windowPauseMillis = Math.max(minimumPauseMillis, sweepMillis / windows);
+            schedule(BankWithdrawalLimitResetter::step, 0);
+        } catch (SQLException | RuntimeException e) {
+            failures.increment();
+            logger.log(Level.WARNING, "Starting a withdrawal limit reset sweep failed", e);
+            schedule(BankWithdrawalLimitResetter::beginSweep, failurePauseMillis);
+        }
+    }
+
+    // resets one window and schedules the next one, or the next sweep after the last window
+    private static void step() {
+        try {
+            int last = Math.min(maximumBankAccountID, nextBankAccountID + batchSize - 1);
+            int reset = resetWindow(nextBankAccountID, last);
+            nextBankAccountID = last + 1;
+            if (nextBankAccountID > maximumBankAccountID) {
+                sweeps.increment();
+                schedule(BankWithdrawalLimitResetter::beginSweep,
+                        Math.max(0, sweepStartedAt + sweepMillis - System.currentTimeMillis()));
+                return;
+            }
+            schedule(BankWithdrawalLimitResetter::step,
+                    Math.max(windowPauseMillis, 1_000L * reset / maximumResetsPerSecond));
+        } catch (SQLException | RuntimeException e) {
+            // the same window is tried again
+            failures.increment();
+            logger.log(Level.WARNING, "Resetting the withdrawal limits failed", e);
+            schedule(BankWithdrawalLimitResetter::step, Math.max(windowPauseMillis, failurePauseMillis));
+        }
+    }
+
+    private static int resetWindow(int firstBankAccountID, int lastBankAccountID) throws SQLException {
+        BankAccountRepository accounts = BankStorageEngine.get().accounts();
+        List<Integer> due = accounts.findDueForWithdrawalLimitReset(firstBankAccountID, lastBankAccountID,
+                periodDays);
+        batches.increment();
+        if (due.isEmpty()) return 0;
+        int reset = accounts.resetWithdrawalLimits(due, periodDays);
+        resets.add(reset);
+        for (Integer bankAccountID : due) {
+            BankAccountCache.invalidateAccount(bankAccountID);
+        }
+        return reset;
+    }
+
+    private static synchronized void schedule(Runnable task, long pauseMillis) {
+        if (scheduler == null) return;
+        scheduler.schedule(task, pauseMillis, TimeUnit.MILLISECONDS);
+    }
+}
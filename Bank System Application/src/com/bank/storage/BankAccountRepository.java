@@ -0,0 +1,45 @@
+package com.bank.storage;
+
+import com.bank.model.BankAccountStatus;
+import com.bank.model.UserBankAccount;
+
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Map;
+
+public interface BankAccountRepository {
+    List<UserBankAccount> findByUsername(String username) throws SQLException;
+
+    // null if there is no such account
+    UserBankAccount findByID(Integer bankAccountID) throws SQLException;
+
+    // locks the accounts until the current transaction ends, always in ascending order so transactions
+    // locking the same accounts can't deadlock each other; ids without an account are left out
+    List<UserBankAccount> findForUpdate(List<Integer> bankAccountIDs) throws SQLException;
+
+    // the accounts with ids from first to last (inclusive), locked the same way
+    List<UserBankAccount> findRangeForUpdate(Integer firstBankAccountID, Integer lastBankAccountID)
+            throws SQLException;
+
+    // null when there is no account yet
+    Integer findMaximumID() throws SQLException;
+
+    // the ids from first to last (inclusive) whose withdrawal limit was last reset at least periodDays ago,
+    // read without locking anything
+    List<Integer> findDueForWithdrawalLimitReset(Integer firstBankAccountID, Integer lastBankAccountID,
+                                                 int periodDays) throws SQLException;
+
+    // gives the accounts still due the withdrawal limit of their type again and returns how many were reset
+    int resetWithdrawalLimits(List<Integer> bankAccountIDs, int periodDays) throws SQLException;
+
+    // adds each amount to the balance of its account and takes the account's withdrawals off its monthly limit,
+    // with one update per account; an account without withdrawals keeps its limit even if its balance drops
+    void addToBalances(Map<Integer, Integer> amountsByBankAccountID, Map<Integer, Integer> withdrawalsByBankAccountID)
+            throws SQLException;
+
+    // the new account is pending, gets the withdrawal limit of its type and logs an OpenBankAccount activity
+    void insert(UserBankAccount account) throws SQLException;
+
+    // closing logs a CloseBankAccount activity
+    void updateStatus(Integer bankAccountID, BankAccountStatus status) throws SQLException;
+}
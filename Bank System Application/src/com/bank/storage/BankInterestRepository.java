@@ -0,0 +1,17 @@
+package com.bank.storage;
+
+import com.bank.model.BankInterestCheckpoint;
+
+import java.sql.SQLException;
+import java.util.List;
+
+// The chunks of accounts the interest of a month was already credited to.
+public interface BankInterestRepository {
+    // the checkpoints of the period overlapping the ids from first to last (inclusive); inside a transaction
+    // they are read locked, so a chunk credited concurrently is seen once it commits
+    List<BankInterestCheckpoint> findCheckpoints(String period, Integer firstBankAccountID,
+                                                 Integer lastBankAccountID) throws SQLException;
+
+    // in the transaction that credits the chunk
+    void insertCheckpoint(BankInterestCheckpoint checkpoint) throws SQLException;
+}
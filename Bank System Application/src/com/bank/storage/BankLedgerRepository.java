@@ -0,0 +1,11 @@
+package com.bank.storage;
+
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+
+// The past balances of the accounts, from the append-only ledger of every balance change and the periodic
+// snapshots of it: a balance is a snapshot plus a bounded number of entries, never the whole history.
+public interface BankLedgerRepository {
+    // the balance made of the entries written before the given time, null if the account didn't exist then
+    Integer balanceBefore(Integer bankAccountID, LocalDateTime before) throws SQLException;
+}
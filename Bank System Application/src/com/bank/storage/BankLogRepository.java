@@ -0,0 +1,16 @@
+package com.bank.storage;
+
+import com.bank.model.Log;
+
+import java.sql.SQLException;
+import java.util.List;
+
+public interface BankLogRepository {
+    void insert(Log log) throws SQLException;
+
+    // in as few statements as possible, in the order of the list
+    void insertAll(List<Log> logs) throws SQLException;
+
+    // newest first, beforeID is the id of the last log of the previous page or null for the first page
+    List<Log> findByUsername(String username, int limit, Integer beforeID) throws SQLException;
+}
@@ -0,0 +1,363 @@
+package com.bank.storage;
+
+import com.bank.model.TransactionType;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+// An append-only log of postings in fixed-size, memory-mapped segment files, read back in order by a single
+// reader. A record is [payload length][CRC32 of the payload][payload] and the payload is the sequence, the
+// time it was journaled, the operation and its arguments, a transfer's amount in both currencies; a segment
+// ends at its first record that is zeroed, torn (wrong checksum) or out of sequence. A record that passes the
+// checksum but can't be decoded is handed to the reader with no type, for it to set aside. The records may be
+// applied out of order; the sequence up to which all of them are applied is kept in a checkpoint file, and a
+// segment is deleted once all of its records are applied.
+class BankPostingJournal {
+    private static final Logger logger = Logger.getLogger(BankPostingJournal.class.getName());
+
+    private static final String segmentPrefix = "postings-";
+    private static final String segmentSuffix = ".journal";
+    private static final String checkpointFile = "postings.checkpoint";
+    private static final int headerBytes = 8;
+    private static final int absentID = Integer.MIN_VALUE;
+
+    private final Path directory;
+    private final int segmentBytes;
+    private final int maximumSegments;
+    private final boolean sync;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition appended = lock.newCondition();
+    private final Condition freed = lock.newCondition();
+    // oldest first, the last one is appended to
+    private final List<Segment> segments = new ArrayList<>();
+    private final FileChannel checkpointChannel;
+    private final MappedByteBuffer checkpoint;
+    private long nextSequence;
+    // only written by markApplied
+    private volatile long appliedSequence;
+    private Segment readSegment;
+    private int readOffset;
+
+    private BankPostingJournal(Path directory, int segmentBytes, int maximumSegments, boolean sync)
+            throws IOException {
+        this.directory = directory;
+        this.segmentBytes = segmentBytes;
+        this.maximumSegments = maximumSegments;
+        this.sync = sync;
+        Files.createDirectories(directory);
+        checkpointChannel = FileChannel.open(directory.resolve(checkpointFile), StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        checkpoint = checkpointChannel.map(FileChannel.MapMode.READ_WRITE, 0, Long.BYTES);
+        appliedSequence = checkpoint.getLong(0);
+    }
+
+    // recovers the segments left by the previous run; their records not applied yet are read first
+    static BankPostingJournal open(Path directory, int segmentBytes, int maximumSegments, boolean sync)
+            throws IOException {
+        BankPostingJournal journal = new BankPostingJournal(directory, segmentBytes, maximumSegments, sync);
+        journal.recover();
+        return journal;
+    }
+
+    // waits up to the timeout for the reader to free a segment when the journal already has its maximum number
+    // of segments, null when none was freed
+    JournaledPosting append(TransactionType type, String username, Integer bankAccountID,
+                            Integer otherBankAccountID, int amount, int otherAmount, String idempotencyKey,
+                            long timeoutMillis) throws IOException, InterruptedException {
+        byte[] usernameBytes = username.getBytes(StandardCharsets.UTF_8);
+        byte[] keyBytes = idempotencyKey.getBytes(StandardCharsets.UTF_8);
+        int payloadBytes = 2 * Long.BYTES + 1 + 4 * Integer.BYTES + 2 * Short.BYTES + usernameBytes.length
+                + keyBytes.length;
+        long remaining = TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        lock.lock();
+        try {
+            Segment segment;
+            while (true) {
+                segment = segments.isEmpty() ? null : segments.get(segments.size() - 1);
+                // a recovered segment that doesn't continue the sequence is left as it is
+                if (segment != null && segment.end + headerBytes + payloadBytes <= segmentBytes
+                        && segment.lastSequence + 1 == nextSequence) {
+                    break;
+                }
+                if (segments.size() < maximumSegments) {
+                    segment = createSegment(nextSequence);
+                    break;
+                }
+                if (remaining <= 0) return null;
+                remaining = freed.awaitNanos(remaining);
+            }
+            long sequence = nextSequence;
+            long journaledAt = System.currentTimeMillis();
+            int offset = segment.end;
+            ByteBuffer payload = segment.buffer.duplicate().position(offset + headerBytes);
+            payload.putLong(sequence).putLong(journaledAt).put((byte) type.ordinal())
+                    .putInt(bankAccountID).putInt(otherBankAccountID == null ? absentID : otherBankAccountID)
+                    .putInt(amount).putInt(otherAmount)
+                    .putShort((short) usernameBytes.length).put(usernameBytes)
+                    .putShort((short) keyBytes.length).put(keyBytes);
+            // the length goes last, so a record torn by a crash reads as the end of the segment
+            segment.buffer.putInt(offset + Integer.BYTES, checksumOf(segment.buffer, offset + headerBytes,
+                    payloadBytes));
+            segment.buffer.putInt(offset, payloadBytes);
+            if (sync) segment.buffer.force(offset, headerBytes + payloadBytes);
+            segment.end += headerBytes + payloadBytes;
+            segment.lastSequence = sequence;
+            ++nextSequence;
+            appended.signalAll();
+            return new JournaledPosting(sequence, journaledAt, type, username, bankAccountID, otherBankAccountID,
+                    amount, otherAmount, idempotencyKey);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // the oldest record not applied yet, or null when none arrived within the timeout; only one thread reads
+    JournaledPosting next(long timeoutMillis) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        lock.lock();
+        try {
+            while (true) {
+                if (readSegment == null && !segments.isEmpty()) {
+                    readSegment = segments.get(0);
+                    readOffset = 0;
+                }
+                if (readSegment != null && readOffset < readSegment.end) {
+                    JournaledPosting posting = readOrMalformed(readSegment.buffer, readOffset);
+                    readOffset += headerBytes + readSegment.buffer.getInt(readOffset);
+                    if (posting.sequence > appliedSequence) return posting;
+                    continue;
+                }
+                Segment following = readSegment == null ? null : segmentAfter(readSegment);
+                if (following != null) {
+                    readSegment = following;
+                    readOffset = 0;
+                    continue;
+                }
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) return null;
+                appended.awaitNanos(remaining);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // every record up to the sequence is applied; deletes the segments whose records all are, except the one
+    // appended to. Called by one thread at a time.
+    void markApplied(long sequence) throws IOException {
+        appliedSequence = sequence;
+        checkpoint.putLong(0, appliedSequence);
+        if (sync) checkpoint.force();
+        lock.lock();
+        try {
+            boolean deleted = false;
+            while (segments.size() > 1 && segments.get(0).lastSequence <= appliedSequence) {
+                delete(segments.remove(0));
+                deleted = true;
+            }
+            if (deleted) freed.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    long getPendingPostings() {
+        lock.lock();
+        try {
+            return nextSequence - 1 - appliedSequence;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // the records not applied yet stay on disk for the next run
+    void close() throws IOException {
+        lock.lock();
+        try {
+            for (Segment segment : segments) {
+                segment.buffer.force();
+                segment.channel.close();
+            }
+            segments.clear();
+            checkpoint.force();
+            checkpointChannel.close();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void recover() throws IOException {
+        List<Path> files;
+        try (Stream<Path> paths = Files.list(directory)) {
+            files = paths.filter(path -> path.getFileName().toString().startsWith(segmentPrefix)
+                    && path.getFileName().toString().endsWith(segmentSuffix)).sorted().toList();
+        }
+        long lastSequence = appliedSequence;
+        for (int i = 0; i < files.size(); ++i) {
+            Path file = files.get(i);
+            String name = file.getFileName().toString();
+            long firstSequence = Long.parseLong(name.substring(segmentPrefix.length(),
+                    name.length() - segmentSuffix.length()));
+            Segment segment = mapSegment(file, firstSequence);
+            scan(segment);
+            if (segment.lastSequence <= appliedSequence && i < files.size() - 1) {
+                delete(segment);
+                continue;
+            }
+            if (firstSequence > lastSequence + 1) {
+                logger.warning("Posting journal records " + (lastSequence + 1) + " to " + (firstSequence - 1) +
+                        " are missing");
+            }
+            lastSequence = Math.max(lastSequence, segment.lastSequence);
+            segments.add(segment);
+        }
+        nextSequence = lastSequence + 1;
+        long pending = nextSequence - 1 - appliedSequence;
+        if (pending > 0) logger.info("Recovered " + pending + " postings from the posting journal");
+    }
+
+    // finds the end of the segment's valid records
+    private static void scan(Segment segment) {
+        int offset = 0;
+        long expectedSequence = segment.firstSequence;
+        while (offset + headerBytes <= segment.buffer.capacity()) {
+            int payloadBytes = segment.buffer.getInt(offset);
+            if (payloadBytes <= 0 || offset + headerBytes + payloadBytes > segment.buffer.capacity()) break;
+            if (segment.buffer.getInt(offset + Integer.BYTES)
+                    != checksumOf(segment.buffer, offset + headerBytes, payloadBytes)) {
+                break;
+            }
+            if (segment.buffer.getLong(offset + headerBytes) != expectedSequence) break;
+            offset += headerBytes + payloadBytes;
+            segment.lastSequence = expectedSequence++;
+        }
+        segment.end = offset;
+    }
+
+    // a record that can't be decoded keeps only its sequence
+    private static JournaledPosting readOrMalformed(MappedByteBuffer buffer, int offset) {
+        try {
+            return read(buffer, offset);
+        } catch (RuntimeException e) {
+            logger.severe("Posting journal record " + buffer.getLong(offset + headerBytes) + " is malformed: " + e);
+            return new JournaledPosting(buffer.getLong(offset + headerBytes), 0, null, null, null, null, 0, 0, null);
+        }
+    }
+
+    private static JournaledPosting read(MappedByteBuffer buffer, int offset) {
+        ByteBuffer payload = buffer.duplicate().position(offset + headerBytes);
+        long sequence = payload.getLong();
+        long journaledAt = payload.getLong();
+        TransactionType type = TransactionType.values()[payload.get()];
+        int bankAccountID = payload.getInt();
+        int otherBankAccountID = payload.getInt();
+        int amount = payload.getInt();
+        int otherAmount = payload.getInt();
+        String username = readString(payload);
+        String idempotencyKey = readString(payload);
+        return new JournaledPosting(sequence, journaledAt, type, username, bankAccountID,
+                otherBankAccountID == absentID ? null : otherBankAccountID, amount, otherAmount, idempotencyKey);
+    }
+
+    private static String readString(ByteBuffer payload) {
+        byte[] bytes = new byte[payload.getShort()];
+        payload.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static int checksumOf(MappedByteBuffer buffer, int offset, int length) {
+        CRC32 crc = new CRC32();
+        crc.update(buffer.slice(offset, length));
+        return (int) crc.getValue();
+    }
+
+    private Segment segmentAfter(Segment segment) {
+        for (Segment candidate : segments) {
+            if (candidate.firstSequence > segment.firstSequence) return candidate;
+        }
+        return null;
+    }
+
+    private Segment createSegment(long firstSequence) throws IOException {
+        Segment segment = mapSegment(directory.resolve(String.format("%s%020d%s", segmentPrefix, firstSequence,
+                segmentSuffix)), firstSequence);
+        segments.add(segment);
+        return segment;
+    }
+
+    private Segment mapSegment(Path file, long firstSequence) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        try {
+            return new Segment(file, channel, channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentBytes),
+                    firstSequence);
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    private static void delete(Segment segment) throws IOException {
+        segment.channel.close();
+        Files.deleteIfExists(segment.file);
+    }
+
+    static class JournaledPosting {
+        final long sequence;
+        // in milliseconds since the epoch, 0 for a malformed record
+        final long journaledAt;
+        // null for a malformed record
+        final TransactionType type;
+        final String username;
+        final Integer bankAccountID;
+        final Integer otherBankAccountID;
+        final int amount;
+        final int otherAmount;
+        final String idempotencyKey;
+
+        private JournaledPosting(long sequence, long journaledAt, TransactionType type, String username,
+                                 Integer bankAccountID, Integer otherBankAccountID, int amount, int otherAmount,
+                                 String idempotencyKey) {
+            this.sequence = sequence;
+            this.journaledAt = journaledAt;
+            this.type = type;
+            this.username = username;
+            this.bankAccountID = bankAccountID;
+            this.otherBankAccountID = otherBankAccountID;
+            this.amount = amount;
+            this.otherAmount = otherAmount;
+            this.idempotencyKey = idempotencyKey;
+        }
+    }
+
+    private static class Segment {
+        private final Path file;
+        private final FileChannel channel;
+        private final MappedByteBuffer buffer;
+        private final long firstSequence;
+        private long lastSequence;
+        private int end;
+
+        private Segment(Path file, FileChannel channel, MappedByteBuffer buffer, long firstSequence) {
+            this.file = file;
+            this.channel = channel;
+            this.buffer = buffer;
+            this.firstSequence = firstSequence;
+            this.lastSequence = firstSequence - 1;
+        }
+    }
+}
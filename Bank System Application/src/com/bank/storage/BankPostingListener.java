@@ -0,0 +1,10 @@
+package com.bank.storage;
+
+import com.bank.model.BankPosting;
+
+// Told about a posting that reached the database after it was acknowledged, a journaled one the replayer
+// posted, so the layers above can bring what they keep of the accounts up to date.
+public interface BankPostingListener {
+    // otherBankAccountID is null unless the posting is a transfer
+    void posted(Integer bankAccountID, Integer otherBankAccountID, BankPosting result);
+}
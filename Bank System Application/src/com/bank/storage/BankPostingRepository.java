@@ -0,0 +1,26 @@
+package com.bank.storage;
+
+import com.bank.model.BankPosting;
+
+import java.sql.SQLException;
+
+// Each posting is atomic on its own: it locks the accounts, checks the rules against them, moves the money
+// and writes the transaction and log rows, or changes nothing and reports the rule that was broken. It runs
+// in its own transaction and must not be called inside another one.
+//
+// The idempotency key may be null. Otherwise the result is stored with the posting, and a later posting of
+// the same user with the same key is not posted again but answers the stored result, replayed, or
+// IDEMPOTENCY_KEY_REUSED when the key was used for a different operation. A posting with a key waits for a
+// concurrent one with the same key to finish.
+public interface BankPostingRepository {
+    BankPosting deposit(String username, Integer bankAccountID, int amount, String idempotencyKey)
+            throws SQLException;
+
+    BankPosting withdraw(String username, Integer bankAccountID, int amount, String idempotencyKey)
+            throws SQLException;
+
+    // otherAmount is what the other account is credited, the amount converted to its currency; between two
+    // accounts of the same currency it must be the amount itself
+    BankPosting transfer(String username, Integer bankAccountID, Integer otherBankAccountID, int amount,
+                         int otherAmount, String idempotencyKey) throws SQLException;
+}
@@ -0,0 +1,8 @@
+package com.bank.storage;
+
+import java.io.IOException;
+
+@FunctionalInterface
+public interface BankRowHandler<T> {
+    void handle(T row) throws IOException;
+}
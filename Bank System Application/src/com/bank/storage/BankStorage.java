@@ -0,0 +1,26 @@
+package com.bank.storage;
+
+import java.sql.SQLException;
+
+public interface BankStorage {
+    BankUserRepository users();
+
+    BankAccountRepository accounts();
+
+    BankTransactionRepository transactions();
+
+    BankLogRepository logs();
+
+    BankPostingRepository postings();
+
+    BankLedgerRepository ledger();
+
+    BankInterestRepository interest();
+
+    // the repositories called before commit() on the same thread take part in this transaction
+    BankTransactionScope beginTransaction() throws SQLException;
+
+    void start() throws SQLException;
+
+    void shutdown();
+}
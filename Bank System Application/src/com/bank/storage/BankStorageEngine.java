@@ -0,0 +1,30 @@
+package com.bank.storage;
+
+public class BankStorageEngine {
+    private BankStorageEngine() {
+    }
+
+    // "jdbc" for MySQL, "memory" to run the business rules without a database
+    private static volatile BankStorage storage = System.getProperty("bank.storage", "jdbc").equals("memory")
+            ? new InMemoryBankStorage() : new JdbcBankStorage();
+
+    private static volatile BankPostingListener postingListener = (bankAccountID, otherBankAccountID, result) -> {
+    };
+
+    public static BankStorage get() {
+        return storage;
+    }
+
+    public static void use(BankStorage newStorage) {
+        storage = newStorage;
+    }
+
+    // kept across storages, set before start() so the postings a previous run left behind are reported too
+    public static void listen(BankPostingListener listener) {
+        postingListener = listener;
+    }
+
+    static BankPostingListener postingListener() {
+        return postingListener;
+    }
+}
@@ -0,0 +1,23 @@
+package com.bank.storage;
+
+import com.bank.model.Transaction;
+
+import java.io.IOException;
+import java.sql.SQLException;
+import java.util.List;
+
+public interface BankTransactionRepository {
+    void insert(Transaction transaction) throws SQLException;
+
+    // in as few statements as possible, in the order of the list
+    void insertAll(List<Transaction> transactions) throws SQLException;
+
+    // newest first, beforeID is the id of the last transaction of the previous page or null for the first page
+    List<Transaction> findByUsername(String username, int limit, Integer beforeID) throws SQLException;
+
+    // newest first, like findByUsername but of one account
+    List<Transaction> findByBankAccountID(Integer bankAccountID, int limit, Integer beforeID) throws SQLException;
+
+    // oldest first, without holding more than the current row in memory
+    long forEachByUsername(String username, BankRowHandler<Transaction> handler) throws SQLException, IOException;
+}
@@ -0,0 +1,11 @@
+package com.bank.storage;
+
+import java.sql.SQLException;
+
+public interface BankTransactionScope extends AutoCloseable {
+    void commit() throws SQLException;
+
+    // rolls back whatever was not committed
+    @Override
+    void close() throws SQLException;
+}
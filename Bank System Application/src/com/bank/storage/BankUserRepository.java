@@ -0,0 +1,27 @@
+package com.bank.storage;
+
+import com.bank.model.User;
+
+import java.sql.SQLException;
+
+public interface BankUserRepository {
+    // null if there is no such user
+    String findPassword(String username) throws SQLException;
+
+    // the profile and the stored password in one query, null if there is no such user
+    User findLogin(String username) throws SQLException;
+
+    boolean isUniqueEmail(String email) throws SQLException;
+
+    void insert(User user) throws SQLException;
+
+    // logs a ChangePassword activity
+    void updatePassword(String username, String password) throws SQLException;
+
+    // replaces the stored password with another hash of it, unless it was changed meanwhile; not logged, the
+    // password stays the same
+    void rehashPassword(String username, String oldPassword, String password) throws SQLException;
+
+    // logs an UpdatePersonalInfo activity
+    void updateInfo(String username, String columnName, String value) throws SQLException;
+}
@@ -0,0 +1,190 @@
+package com.bank.storage;
+
+import com.bank.model.ActivityType;
+import com.bank.model.BankAccountStatus;
+import com.bank.model.UserBankAccount;
+
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+public class InMemoryBankAccountRepository implements BankAccountRepository {
+    private static final int stripeCount = 64;
+
+    private final ReentrantLock[] stripes = new ReentrantLock[stripeCount];
+    private final ConcurrentHashMap<Integer, UserBankAccount> accounts = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, List<Integer>> accountIDsByUsername = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Integer, LocalDateTime> lastResetWithdrawalLimits = new ConcurrentHashMap<>();
+    private final AtomicInteger accountIDs = new AtomicInteger();
+    private final InMemoryBankLogRepository logs;
+    private final InMemoryBankLedgerRepository ledger;
+
+    InMemoryBankAccountRepository(InMemoryBankLogRepository logs, InMemoryBankLedgerRepository ledger) {
+        this.logs = logs;
+        this.ledger = ledger;
+        for (int i = 0; i < stripeCount; ++i) {
+            stripes[i] = new ReentrantLock();
+        }
+    }
+
+    @Override
+    public List<UserBankAccount> findByUsername(String username) {
+        List<Integer> bankAccountIDs = accountIDsByUsername.getOrDefault(username, List.of());
+        List<UserBankAccount> bankAccounts = new ArrayList<>(bankAccountIDs.size());
+        for (Integer bankAccountID : bankAccountIDs) {
+            bankAccounts.add(accounts.get(bankAccountID));
+        }
+        return bankAccounts;
+    }
+
+    @Override
+    public UserBankAccount findByID(Integer bankAccountID) {
+        return accounts.get(bankAccountID);
+    }
+
+    // the stripes are taken in ascending stripe order, which orders any two transactions the same way
+    @Override
+    public List<UserBankAccount> findForUpdate(List<Integer> bankAccountIDs) throws SQLException {
+        InMemoryBankTransaction transaction = InMemoryBankTransaction.current();
+        if (transaction == null) {
+            throw new SQLException("Accounts can only be locked inside a transaction");
+        }
+        int[] stripeIndexes = bankAccountIDs.stream().mapToInt(this::stripeIndexOf).distinct().sorted().toArray();
+        for (int stripeIndex : stripeIndexes) {
+            transaction.hold(stripes[stripeIndex]);
+        }
+        List<UserBankAccount> bankAccounts = new ArrayList<>(bankAccountIDs.size());
+        bankAccountIDs.stream().sorted().distinct().forEach(bankAccountID -> {
+            UserBankAccount account = accounts.get(bankAccountID);
+            if (account != null) bankAccounts.add(account);
+        });
+        return bankAccounts;
+    }
+
+    @Override
+    public List<UserBankAccount> findRangeForUpdate(Integer firstBankAccountID, Integer lastBankAccountID)
+            throws SQLException {
+        List<Integer> bankAccountIDs = new ArrayList<>();
+        for (int bankAccountID = firstBankAccountID; bankAccountID <= lastBankAccountID; ++bankAccountID) {
+            bankAccountIDs.add(bankAccountID);
+        }
+        return findForUpdate(bankAccountIDs);
+    }
+
+    @Override
+    public Integer findMaximumID() {
+        int bankAccountID = accountIDs.get();
+        return bankAccountID == 0 ? null : bankAccountID;
+    }
+
+    @Override
+    public List<Integer> findDueForWithdrawalLimitReset(Integer firstBankAccountID, Integer lastBankAccountID,
+                                                        int periodDays) {
+        LocalDateTime resetBefore = LocalDateTime.now().minusDays(periodDays);
+        List<Integer> bankAccountIDs = new ArrayList<>();
+        for (int bankAccountID = firstBankAccountID; bankAccountID <= lastBankAccountID; ++bankAccountID) {
+            LocalDateTime lastReset = lastResetWithdrawalLimits.get(bankAccountID);
+            if (lastReset != null && !lastReset.isAfter(resetBefore)) bankAccountIDs.add(bankAccountID);
+        }
+        return bankAccountIDs;
+    }
+
+    @Override
+    public int resetWithdrawalLimits(List<Integer> bankAccountIDs, int periodDays) {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime resetBefore = now.minusDays(periodDays);
+        int reset = 0;
+        for (Integer bankAccountID : bankAccountIDs) {
+            ReentrantLock stripe = stripeOf(bankAccountID);
+            stripe.lock();
+            try {
+                UserBankAccount account = accounts.get(bankAccountID);
+                LocalDateTime lastReset = lastResetWithdrawalLimits.get(bankAccountID);
+                if (account == null || lastReset == null || lastReset.isAfter(resetBefore)) continue;
+                accounts.put(bankAccountID, account.withBalance(account.getBalance(),
+                        account.getType().terms().withdrawalLimits));
+                lastResetWithdrawalLimits.put(bankAccountID, now);
+                ++reset;
+            } finally {
+                stripe.unlock();
+            }
+        }
+        return reset;
+    }
+
+    @Override
+    public void addToBalances(Map<Integer, Integer> amountsByBankAccountID,
+                              Map<Integer, Integer> withdrawalsByBankAccountID) {
+        Set<Integer> bankAccountIDs = new TreeSet<>(amountsByBankAccountID.keySet());
+        bankAccountIDs.addAll(withdrawalsByBankAccountID.keySet());
+        for (Integer bankAccountID : bankAccountIDs) {
+            ReentrantLock stripe = stripeOf(bankAccountID);
+            stripe.lock();
+            try {
+                applyBalanceChange(bankAccountID, amountsByBankAccountID.getOrDefault(bankAccountID, 0),
+                        withdrawalsByBankAccountID.getOrDefault(bankAccountID, 0));
+            } finally {
+                stripe.unlock();
+            }
+        }
+    }
+
+    // same defaults as the set_bankAccount_pending_status and set_default_withdrawalLimit triggers
+    @Override
+    public void insert(UserBankAccount account) {
+        Integer bankAccountID = accountIDs.incrementAndGet();
+        accounts.put(bankAccountID, new UserBankAccount(account.getUsername(), bankAccountID, account.getType(),
+                account.getCurrency(), BankAccountStatus.PENDING, account.getBalance(),
+                account.getType().terms().withdrawalLimits, InMemoryBankStorage.now()));
+        lastResetWithdrawalLimits.put(bankAccountID, LocalDateTime.now());
+        ledger.open(bankAccountID, account.getBalance());
+        accountIDsByUsername.computeIfAbsent(account.getUsername(), key -> new CopyOnWriteArrayList<>())
+                .add(bankAccountID);
+        logs.insert(account.getUsername(), ActivityType.OpenBankAccount);
+    }
+
+    @Override
+    public void updateStatus(Integer bankAccountID, BankAccountStatus status) {
+        ReentrantLock stripe = stripeOf(bankAccountID);
+        stripe.lock();
+        try {
+            UserBankAccount account = accounts.get(bankAccountID);
+            if (account == null) return;
+            accounts.put(bankAccountID, account.withStatus(status));
+            if (status == BankAccountStatus.CLOSED) {
+                logs.insert(account.getUsername(), ActivityType.CloseBankAccount);
+            }
+        } finally {
+            stripe.unlock();
+        }
+    }
+
+    ReentrantLock stripeOf(Integer bankAccountID) {
+        return stripes[stripeIndexOf(bankAccountID)];
+    }
+
+    private int stripeIndexOf(Integer bankAccountID) {
+        return Math.floorMod(bankAccountID, stripeCount);
+    }
+
+    // the caller holds the account's stripe; mirrors the decrease_withdrawalLimit and ledger triggers
+    void applyBalanceChange(Integer bankAccountID, int amount) {
+        applyBalanceChange(bankAccountID, amount, amount < 0 ? 1 : 0);
+    }
+
+    private void applyBalanceChange(Integer bankAccountID, int amount, int withdrawals) {
+        UserBankAccount account = accounts.get(bankAccountID);
+        if (account == null || (amount == 0 && withdrawals == 0)) return;
+        accounts.put(bankAccountID, account.withBalance(account.getBalance() + amount,
+                account.getWithdrawalLimit() - withdrawals));
+        if (amount != 0) ledger.append(bankAccountID, amount, account.getBalance() + amount);
+    }
+}
@@ -0,0 +1,32 @@
+package com.bank.storage;
+
+import com.bank.model.BankInterestCheckpoint;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+// A chunk is credited while holding the stripes of all of its accounts, so a concurrent run crediting the
+// same accounts only reads the checkpoints after the chunk inserted its own.
+public class InMemoryBankInterestRepository implements BankInterestRepository {
+    private final List<BankInterestCheckpoint> checkpoints = new CopyOnWriteArrayList<>();
+
+    @Override
+    public List<BankInterestCheckpoint> findCheckpoints(String period, Integer firstBankAccountID,
+                                                        Integer lastBankAccountID) {
+        List<BankInterestCheckpoint> overlapping = new ArrayList<>();
+        for (BankInterestCheckpoint checkpoint : checkpoints) {
+            if (checkpoint.getPeriod().equals(period) && checkpoint.getFirstBankAccountID() <= lastBankAccountID
+                    && checkpoint.getLastBankAccountID() >= firstBankAccountID) {
+                overlapping.add(checkpoint);
+            }
+        }
+        overlapping.sort((a, b) -> Integer.compare(a.getFirstBankAccountID(), b.getFirstBankAccountID()));
+        return overlapping;
+    }
+
+    @Override
+    public void insertCheckpoint(BankInterestCheckpoint checkpoint) {
+        checkpoints.add(checkpoint);
+    }
+}
@@ -0,0 +1,103 @@
+package com.bank.storage;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+// The accountLedger and accountSnapshots tables, appended to by the account repository the way the ledger
+// triggers append to them.
+public class InMemoryBankLedgerRepository implements BankLedgerRepository {
+    // same interval as the append_ledger_entry trigger
+    private static final int snapshotInterval = 100;
+
+    private final ConcurrentHashMap<Integer, AccountLedger> ledgers = new ConcurrentHashMap<>();
+
+    @Override
+    public Integer balanceBefore(Integer bankAccountID, LocalDateTime before) {
+        AccountLedger ledger = ledgers.get(bankAccountID);
+        return ledger == null ? null : ledger.balanceBefore(before);
+    }
+
+    // like the open_account_ledger trigger
+    void open(Integer bankAccountID, int balance) {
+        ledgers.put(bankAccountID, new AccountLedger(balance, LocalDateTime.now()));
+    }
+
+    // like the append_ledger_entry trigger
+    void append(Integer bankAccountID, int amount, int balance) {
+        AccountLedger ledger = ledgers.get(bankAccountID);
+        if (ledger != null) ledger.append(amount, balance, LocalDateTime.now());
+    }
+
+    private static class AccountLedger {
+        private final ReentrantLock lock = new ReentrantLock();
+        // the entry with sequence n is at index n - 1
+        private final List<Entry> entries = new ArrayList<>();
+        // oldest first, value is the balance after the entry with the snapshot's sequence
+        private final List<Entry> snapshots = new ArrayList<>();
+
+        private AccountLedger(int openingBalance, LocalDateTime createdAt) {
+            entries.add(new Entry(1, openingBalance, createdAt));
+            snapshots.add(new Entry(1, openingBalance, createdAt));
+        }
+
+        private void append(int amount, int balance, LocalDateTime createdAt) {
+            lock.lock();
+            try {
+                long sequence = entries.size() + 1;
+                entries.add(new Entry(sequence, amount, createdAt));
+                if (sequence % snapshotInterval == 0) snapshots.add(new Entry(sequence, balance, createdAt));
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private Integer balanceBefore(LocalDateTime before) {
+            lock.lock();
+            try {
+                int snapshotIndex = lastSnapshotBefore(before);
+                if (snapshotIndex < 0) return null;
+                Entry snapshot = snapshots.get(snapshotIndex);
+                int balance = snapshot.value;
+                long end = Math.min(entries.size(), snapshot.sequence + snapshotInterval - 1);
+                for (long sequence = snapshot.sequence + 1; sequence <= end; ++sequence) {
+                    Entry entry = entries.get((int) sequence - 1);
+                    if (!entry.createdAt.isBefore(before)) break;
+                    balance += entry.value;
+                }
+                return balance;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        // -1 when even the opening snapshot is not before the given time
+        private int lastSnapshotBefore(LocalDateTime before) {
+            int low = 0;
+            int high = snapshots.size() - 1;
+            while (low <= high) {
+                int middle = (low + high) >>> 1;
+                if (snapshots.get(middle).createdAt.isBefore(before)) {
+                    low = middle + 1;
+                } else {
+                    high = middle - 1;
+                }
+            }
+            return high;
+        }
+    }
+
+    private static class Entry {
+        private final long sequence;
+        private final int value;
+        private final LocalDateTime createdAt;
+
+        private Entry(long sequence, int value, LocalDateTime createdAt) {
+            this.sequence = sequence;
+            this.value = value;
+            this.createdAt = createdAt;
+        }
+    }
+}
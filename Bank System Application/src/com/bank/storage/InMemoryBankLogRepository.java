@@ -0,0 +1,37 @@
+package com.bank.storage;
+
+import com.bank.model.ActivityType;
+import com.bank.model.Log;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class InMemoryBankLogRepository implements BankLogRepository {
+    private final AtomicInteger logIDs = new AtomicInteger();
+    private final ConcurrentHashMap<String, InMemoryBankRecordList<Log>> logsByUsername = new ConcurrentHashMap<>();
+
+    @Override
+    public void insert(Log log) {
+        insert(log.getUsername(), log.getType());
+    }
+
+    @Override
+    public void insertAll(List<Log> logs) {
+        for (Log log : logs) {
+            insert(log.getUsername(), log.getType());
+        }
+    }
+
+    void insert(String username, ActivityType type) {
+        String createdAt = InMemoryBankStorage.now();
+        logsByUsername.computeIfAbsent(username, key -> new InMemoryBankRecordList<>())
+                .append(logIDs, id -> new Log(id, username, type, createdAt));
+    }
+
+    @Override
+    public List<Log> findByUsername(String username, int limit, Integer beforeID) {
+        InMemoryBankRecordList<Log> logs = logsByUsername.get(username);
+        return logs == null ? List.of() : logs.pageBefore(limit, beforeID);
+    }
+}
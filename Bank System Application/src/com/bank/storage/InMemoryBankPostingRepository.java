@@ -0,0 +1,233 @@
+package com.bank.storage;
+
+import com.bank.model.ActivityType;
+import com.bank.model.BankAccountStatus;
+import com.bank.model.BankIdempotencyWindow;
+import com.bank.model.BankOperationStatus;
+import com.bank.model.BankPosting;
+import com.bank.model.BankPostingGuard;
+import com.bank.model.Transaction;
+import com.bank.model.TransactionType;
+import com.bank.model.UserBankAccount;
+
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+// The same checks, in the same order, as the postDeposit, postWithdrawal and postTransfer procedures. The
+// idempotency keys are kept for a day, as purge_idempotency_keys keeps them in the table, and at most
+// bank.memory.maximumIdempotencyKeys of them, the least recently used are dropped first.
+public class InMemoryBankPostingRepository implements BankPostingRepository {
+    private static final int maximumKeys = Integer.getInteger("bank.memory.maximumIdempotencyKeys", 1_000_000);
+    private static final long timeToLiveMillis = Long.getLong("bank.memory.idempotencyKeyMillis", 86_400_000L);
+
+    private final InMemoryBankAccountRepository accounts;
+    private final InMemoryBankTransactionRepository transactions;
+    private final InMemoryBankLogRepository logs;
+    private final ReentrantLock lock = new ReentrantLock();
+    // a key whose first posting still runs is not dropped, a retry of it would post again
+    private final Map<String, IdempotencyKey> idempotencyKeys = new LinkedHashMap<>(256, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, IdempotencyKey> eldest) {
+            return size() > maximumKeys && !eldest.getValue().lock.isLocked();
+        }
+    };
+
+    InMemoryBankPostingRepository(InMemoryBankAccountRepository accounts,
+                                  InMemoryBankTransactionRepository transactions, InMemoryBankLogRepository logs) {
+        this.accounts = accounts;
+        this.transactions = transactions;
+        this.logs = logs;
+    }
+
+    @Override
+    public BankPosting deposit(String username, Integer bankAccountID, int amount, String idempotencyKey)
+            throws SQLException {
+        return postOnce(username, idempotencyKey,
+                BankIdempotencyWindow.requestOf(TransactionType.DEPOSIT, bankAccountID, null, amount),
+                () -> deposit(username, bankAccountID, amount));
+    }
+
+    @Override
+    public BankPosting withdraw(String username, Integer bankAccountID, int amount, String idempotencyKey)
+            throws SQLException {
+        return postOnce(username, idempotencyKey,
+                BankIdempotencyWindow.requestOf(TransactionType.WITHDRAWAL, bankAccountID, null, amount),
+                () -> withdraw(username, bankAccountID, amount));
+    }
+
+    @Override
+    public BankPosting transfer(String username, Integer bankAccountID, Integer otherBankAccountID, int amount,
+                                int otherAmount, String idempotencyKey) throws SQLException {
+        return postOnce(username, idempotencyKey,
+                BankIdempotencyWindow.requestOf(TransactionType.TRANSFER, bankAccountID, otherBankAccountID, amount),
+                () -> transfer(username, bankAccountID, otherBankAccountID, amount, otherAmount));
+    }
+
+    // like claimIdempotencyKey and replayIdempotencyKey: the key's lock is held while its first posting runs
+    private BankPosting postOnce(String username, String idempotencyKey, String request,
+                                 BankPostingGuard.Posting posting) throws SQLException {
+        if (idempotencyKey == null) return posting.post();
+        IdempotencyKey key = claim(username + '\u0000' + idempotencyKey);
+        key.lock.lock();
+        try {
+            if (key.posting != null) {
+                return key.request.equals(request) ? key.posting.replayed()
+                        : BankPosting.rejected(BankOperationStatus.IDEMPOTENCY_KEY_REUSED).replayed();
+            }
+            BankPosting result = posting.post();
+            key.request = request;
+            key.posting = result;
+            return result;
+        } finally {
+            key.lock.unlock();
+        }
+    }
+
+    // the key, or a new one when it is unknown or older than a day
+    private IdempotencyKey claim(String name) {
+        lock.lock();
+        try {
+            long now = System.currentTimeMillis();
+            IdempotencyKey key = idempotencyKeys.get(name);
+            if (key == null || now - key.createdAt >= timeToLiveMillis) {
+                key = new IdempotencyKey(now);
+                idempotencyKeys.put(name, key);
+            }
+            return key;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private BankPosting deposit(String username, Integer bankAccountID, int amount) throws SQLException {
+        InMemoryBankTransaction transaction = beginPosting();
+        try {
+            UserBankAccount account = lock(bankAccountID);
+            BankOperationStatus status = amount <= 0 ? BankOperationStatus.INVALID_AMOUNT
+                    : checkOwnActiveAccount(username, account);
+            if (status != BankOperationStatus.OK) return rejected(status, account, null);
+            accounts.applyBalanceChange(bankAccountID, amount);
+            transactions.insert(new Transaction(null, username, bankAccountID, amount, TransactionType.DEPOSIT, null));
+            logs.insert(username, ActivityType.DEPOSIT);
+            return posted(bankAccountID, null);
+        } finally {
+            transaction.close();
+        }
+    }
+
+    private BankPosting withdraw(String username, Integer bankAccountID, int amount) throws SQLException {
+        InMemoryBankTransaction transaction = beginPosting();
+        try {
+            UserBankAccount account = lock(bankAccountID);
+            BankOperationStatus status = amount <= 0 ? BankOperationStatus.INVALID_AMOUNT
+                    : checkOwnActiveAccount(username, account);
+            if (status == BankOperationStatus.OK) status = checkWithdrawal(account, amount);
+            if (status != BankOperationStatus.OK) return rejected(status, account, null);
+            accounts.applyBalanceChange(bankAccountID, -amount);
+            transactions.insert(new Transaction(null, username, bankAccountID, amount, TransactionType.WITHDRAWAL,
+                    null));
+            logs.insert(username, ActivityType.WITHDRAWAL);
+            return posted(bankAccountID, null);
+        } finally {
+            transaction.close();
+        }
+    }
+
+    private BankPosting transfer(String username, Integer bankAccountID, Integer otherBankAccountID, int amount,
+                                 int otherAmount) throws SQLException {
+        InMemoryBankTransaction transaction = beginPosting();
+        try {
+            List<UserBankAccount> locked = accounts.findForUpdate(List.of(bankAccountID, otherBankAccountID));
+            UserBankAccount account = find(locked, bankAccountID);
+            UserBankAccount otherAccount = find(locked, otherBankAccountID);
+            BankOperationStatus status = BankOperationStatus.OK;
+            if (amount <= 0 || otherAmount <= 0 || account != null && otherAccount != null
+                    && account.getCurrency() == otherAccount.getCurrency() && otherAmount != amount) {
+                status = BankOperationStatus.INVALID_AMOUNT;
+            } else if (bankAccountID.equals(otherBankAccountID)) {
+                status = BankOperationStatus.SAME_ACCOUNT;
+            }
+            if (status == BankOperationStatus.OK) status = checkOwnActiveAccount(username, account);
+            if (status == BankOperationStatus.OK
+                    && (otherAccount == null || otherAccount.getStatus() != BankAccountStatus.ACTIVE)) {
+                status = BankOperationStatus.OTHER_ACCOUNT_NOT_VALID;
+            }
+            if (status == BankOperationStatus.OK) status = checkWithdrawal(account, amount);
+            if (status != BankOperationStatus.OK) return rejected(status, account, otherAccount);
+            accounts.applyBalanceChange(otherBankAccountID, otherAmount);
+            accounts.applyBalanceChange(bankAccountID, -amount);
+            transactions.insert(new Transaction(null, username, bankAccountID, -amount, TransactionType.TRANSFER,
+                    null));
+            transactions.insert(new Transaction(null, otherAccount.getUsername(), otherBankAccountID, otherAmount,
+                    TransactionType.TRANSFER, null));
+            logs.insert(username, ActivityType.TRANSFER);
+            return posted(bankAccountID, otherBankAccountID);
+        } finally {
+            transaction.close();
+        }
+    }
+
+    private static InMemoryBankTransaction beginPosting() throws SQLException {
+        if (InMemoryBankTransaction.current() != null) {
+            throw new SQLException("A posting runs in its own transaction, not inside another one");
+        }
+        return InMemoryBankTransaction.begin();
+    }
+
+    private UserBankAccount lock(Integer bankAccountID) throws SQLException {
+        return find(accounts.findForUpdate(List.of(bankAccountID)), bankAccountID);
+    }
+
+    private static UserBankAccount find(List<UserBankAccount> accounts, Integer bankAccountID) {
+        for (UserBankAccount account : accounts) {
+            if (account.getBankAccountID().equals(bankAccountID)) return account;
+        }
+        return null;
+    }
+
+    private static BankOperationStatus checkOwnActiveAccount(String username, UserBankAccount account) {
+        if (account == null || !account.getUsername().equals(username)) {
+            return BankOperationStatus.ACCOUNT_NOT_FOUND;
+        }
+        if (account.getStatus() != BankAccountStatus.ACTIVE) return BankOperationStatus.ACCOUNT_NOT_ACTIVE;
+        return BankOperationStatus.OK;
+    }
+
+    private static BankOperationStatus checkWithdrawal(UserBankAccount account, int amount) {
+        if (account.getWithdrawalLimit() <= 0) return BankOperationStatus.WITHDRAWAL_LIMIT_REACHED;
+        if (amount > account.getBalance()) return BankOperationStatus.INSUFFICIENT_BALANCE;
+        if (account.getBalance() - amount < account.getType().terms().minimumBalanceInAccount) {
+            return BankOperationStatus.MINIMUM_BALANCE_REACHED;
+        }
+        return BankOperationStatus.OK;
+    }
+
+    private BankPosting posted(Integer bankAccountID, Integer otherBankAccountID) {
+        UserBankAccount account = accounts.findByID(bankAccountID);
+        Integer otherBalance = otherBankAccountID == null ? null : accounts.findByID(otherBankAccountID).getBalance();
+        return new BankPosting(BankOperationStatus.OK, account.getBalance(), account.getWithdrawalLimit(),
+                otherBalance);
+    }
+
+    private static BankPosting rejected(BankOperationStatus status, UserBankAccount account,
+                                        UserBankAccount otherAccount) {
+        return new BankPosting(status, account == null ? null : account.getBalance(),
+                account == null ? null : account.getWithdrawalLimit(),
+                otherAccount == null ? null : otherAccount.getBalance());
+    }
+
+    // a row of the in-memory idempotencyKeys table
+    private static class IdempotencyKey {
+        private final ReentrantLock lock = new ReentrantLock();
+        private final long createdAt;
+        private String request;
+        private BankPosting posting;
+
+        private IdempotencyKey(long createdAt) {
+            this.createdAt = createdAt;
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.bank.storage;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.IntFunction;
+
+// Append-only records of one key (a user, an account) in ascending id order. Slots below size never change
+// once written, so readers only need the lock to take a consistent (array, size) snapshot.
+class InMemoryBankRecordList<T> {
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private int[] ids = new int[8];
+    private Object[] records = new Object[8];
+    private int size;
+
+    // the id is drawn under the list's lock so the list stays sorted even with concurrent appends
+    T append(AtomicInteger idGenerator, IntFunction<T> recordFactory) {
+        lock.writeLock().lock();
+        try {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+                records = Arrays.copyOf(records, size * 2);
+            }
+            int id = idGenerator.incrementAndGet();
+            T record = recordFactory.apply(id);
+            ids[size] = id;
+            records[size] = record;
+            ++size;
+            return record;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // for a record whose id was drawn by another list; a record that arrives late is placed in new arrays, so
+    // the slots a reader may still be looking at never change
+    void insert(int id, T record) {
+        lock.writeLock().lock();
+        try {
+            int index = size;
+            while (index > 0 && ids[index - 1] > id) --index;
+            if (size == ids.length || index < size) {
+                int[] newIDs = new int[size == ids.length ? size * 2 : ids.length];
+                Object[] newRecords = new Object[newIDs.length];
+                System.arraycopy(ids, 0, newIDs, 0, index);
+                System.arraycopy(records, 0, newRecords, 0, index);
+                System.arraycopy(ids, index, newIDs, index + 1, size - index);
+                System.arraycopy(records, index, newRecords, index + 1, size - index);
+                ids = newIDs;
+                records = newRecords;
+            }
+            ids[index] = id;
+            records[index] = record;
+            ++size;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // newest first, starting below beforeID (or at the newest record when it is null)
+    @SuppressWarnings("unchecked")
+    List<T> pageBefore(int limit, Integer beforeID) {
+        lock.readLock().lock();
+        try {
+            int end = beforeID == null ? size : lowerBound(beforeID);
+            int start = Math.max(0, end - limit);
+            List<T> page = new ArrayList<>(end - start);
+            for (int i = end - 1; i >= start; --i) {
+                page.add((T) records[i]);
+            }
+            return page;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    long forEach(BankRowHandler<T> handler) throws IOException {
+        Object[] snapshot;
+        int count;
+        lock.readLock().lock();
+        try {
+            snapshot = records;
+            count = size;
+        } finally {
+            lock.readLock().unlock();
+        }
+        for (int i = 0; i < count; ++i) {
+            handler.handle((T) snapshot[i]);
+        }
+        return count;
+    }
+
+    // index of the first record whose id is not below the given one
+    private int lowerBound(int id) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (ids[middle] < id) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+}
@@ -0,0 +1,79 @@
+package com.bank.storage;
+
+import com.bank.model.BankExchangeRates;
+
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+// Keeps everything in memory and applies the rules of the database triggers itself, so the business logic
+// can be exercised and load-tested without MySQL. Every repository call is atomic on its own; a
+// transaction scope holds the account locks taken in it but does not undo earlier calls, which is fine
+// because nothing here fails halfway.
+public class InMemoryBankStorage implements BankStorage {
+    private static final DateTimeFormatter timestampFormat = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private final InMemoryBankLogRepository logs = new InMemoryBankLogRepository();
+    private final InMemoryBankUserRepository users = new InMemoryBankUserRepository(logs);
+    private final InMemoryBankLedgerRepository ledger = new InMemoryBankLedgerRepository();
+    private final InMemoryBankAccountRepository accounts = new InMemoryBankAccountRepository(logs, ledger);
+    private final InMemoryBankTransactionRepository transactions = new InMemoryBankTransactionRepository();
+    private final InMemoryBankPostingRepository postings = new InMemoryBankPostingRepository(accounts, transactions,
+            logs);
+    private final InMemoryBankInterestRepository interest = new InMemoryBankInterestRepository();
+
+    @Override
+    public BankUserRepository users() {
+        return users;
+    }
+
+    @Override
+    public BankAccountRepository accounts() {
+        return accounts;
+    }
+
+    @Override
+    public BankTransactionRepository transactions() {
+        return transactions;
+    }
+
+    @Override
+    public BankLogRepository logs() {
+        return logs;
+    }
+
+    @Override
+    public BankPostingRepository postings() {
+        return postings;
+    }
+
+    @Override
+    public BankLedgerRepository ledger() {
+        return ledger;
+    }
+
+    @Override
+    public BankInterestRepository interest() {
+        return interest;
+    }
+
+    @Override
+    public BankTransactionScope beginTransaction() {
+        return InMemoryBankTransaction.begin();
+    }
+
+    // there is no exchangeRates table here, only the rates file
+    @Override
+    public void start() throws SQLException {
+        if (BankExchangeRates.hasRatesFile()) BankExchangeRates.start();
+    }
+
+    @Override
+    public void shutdown() {
+        BankExchangeRates.shutdown();
+    }
+
+    static String now() {
+        return LocalDateTime.now().format(timestampFormat);
+    }
+}
@@ -0,0 +1,49 @@
+package com.bank.storage;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+// The in-memory counterpart of a database transaction: it holds the account locks taken by findForUpdate
+// until the outermost scope of the thread closes. Nested scopes share the outer one, like nested borrows
+// of a pooled connection.
+class InMemoryBankTransaction implements BankTransactionScope {
+    private static final ThreadLocal<InMemoryBankTransaction> current = new ThreadLocal<>();
+
+    private final List<ReentrantLock> heldLocks = new ArrayList<>(2);
+    private int depth;
+
+    static InMemoryBankTransaction begin() {
+        InMemoryBankTransaction transaction = current.get();
+        if (transaction == null) {
+            transaction = new InMemoryBankTransaction();
+            current.set(transaction);
+        }
+        ++transaction.depth;
+        return transaction;
+    }
+
+    // null outside of a transaction
+    static InMemoryBankTransaction current() {
+        return current.get();
+    }
+
+    void hold(ReentrantLock lock) {
+        lock.lock();
+        heldLocks.add(lock);
+    }
+
+    @Override
+    public void commit() {
+    }
+
+    @Override
+    public void close() {
+        if (--depth > 0) return;
+        current.remove();
+        for (int i = heldLocks.size() - 1; i >= 0; --i) {
+            heldLocks.get(i).unlock();
+        }
+        heldLocks.clear();
+    }
+}
@@ -0,0 +1,60 @@
+package com.bank.storage;
+
+import com.bank.model.Transaction;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class InMemoryBankTransactionRepository implements BankTransactionRepository {
+    private final AtomicInteger transactionIDs = new AtomicInteger();
+    private final ConcurrentHashMap<String, InMemoryBankRecordList<Transaction>> transactionsByUsername =
+            new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Integer, InMemoryBankRecordList<Transaction>> transactionsByBankAccountID =
+            new ConcurrentHashMap<>();
+
+    // the rows of an account are written under its lock, so the account's list draws the id and the user's
+    // list, which gets the rows of all of the user's accounts, files it in order
+    @Override
+    public void insert(Transaction transaction) {
+        String createdAt = InMemoryBankStorage.now();
+        InMemoryBankRecordList<Transaction> userTransactions = transactionsByUsername.computeIfAbsent(
+                transaction.getUsername(), key -> new InMemoryBankRecordList<>());
+        if (transaction.getBankAccountID() == null) {
+            userTransactions.append(transactionIDs, id -> new Transaction(id, transaction.getUsername(),
+                    transaction.getAmount(), transaction.getType(), createdAt));
+            return;
+        }
+        Transaction inserted = transactionsByBankAccountID.computeIfAbsent(transaction.getBankAccountID(),
+                key -> new InMemoryBankRecordList<>()).append(transactionIDs, id -> new Transaction(id,
+                transaction.getUsername(), transaction.getBankAccountID(), transaction.getAmount(),
+                transaction.getType(), createdAt));
+        userTransactions.insert(inserted.getId(), inserted);
+    }
+
+    @Override
+    public void insertAll(List<Transaction> transactions) {
+        for (Transaction transaction : transactions) {
+            insert(transaction);
+        }
+    }
+
+    @Override
+    public List<Transaction> findByUsername(String username, int limit, Integer beforeID) {
+        InMemoryBankRecordList<Transaction> transactions = transactionsByUsername.get(username);
+        return transactions == null ? List.of() : transactions.pageBefore(limit, beforeID);
+    }
+
+    @Override
+    public List<Transaction> findByBankAccountID(Integer bankAccountID, int limit, Integer beforeID) {
+        InMemoryBankRecordList<Transaction> transactions = transactionsByBankAccountID.get(bankAccountID);
+        return transactions == null ? List.of() : transactions.pageBefore(limit, beforeID);
+    }
+
+    @Override
+    public long forEachByUsername(String username, BankRowHandler<Transaction> handler) throws IOException {
+        InMemoryBankRecordList<Transaction> transactions = transactionsByUsername.get(username);
+        return transactions == null ? 0 : transactions.forEach(handler);
+    }
+}
@@ -0,0 +1,87 @@
+package com.bank.storage;
+
+import com.bank.model.ActivityType;
+import com.bank.model.User;
+
+import java.sql.SQLException;
+import java.sql.SQLIntegrityConstraintViolationException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+public class InMemoryBankUserRepository implements BankUserRepository {
+    private final ConcurrentHashMap<String, User> users = new ConcurrentHashMap<>();
+    private final Set<String> emails = ConcurrentHashMap.newKeySet();
+    private final InMemoryBankLogRepository logs;
+
+    InMemoryBankUserRepository(InMemoryBankLogRepository logs) {
+        this.logs = logs;
+    }
+
+    @Override
+    public String findPassword(String username) {
+        User user = users.get(username);
+        return user == null ? null : user.getPassword();
+    }
+
+    @Override
+    public User findLogin(String username) {
+        return users.get(username);
+    }
+
+    @Override
+    public boolean isUniqueEmail(String email) {
+        return !emails.contains(email);
+    }
+
+    @Override
+    public void insert(User user) throws SQLException {
+        if (!emails.add(user.getEmail())) {
+            throw new SQLIntegrityConstraintViolationException("Duplicate email " + user.getEmail());
+        }
+        if (users.putIfAbsent(user.getUsername(), user) != null) {
+            emails.remove(user.getEmail());
+            throw new SQLIntegrityConstraintViolationException("Duplicate username " + user.getUsername());
+        }
+    }
+
+    @Override
+    public void updatePassword(String username, String password) {
+        User updated = users.computeIfPresent(username, (key, user) -> new User(username, password,
+                user.getFirstName(), user.getLastName(), user.getPhoneNumber(), user.getAddress(), user.getEmail()));
+        if (updated != null) {
+            logs.insert(username, ActivityType.ChangePassword);
+        }
+    }
+
+    @Override
+    public void rehashPassword(String username, String oldPassword, String password) {
+        users.computeIfPresent(username, (key, user) -> !user.getPassword().equals(oldPassword) ? user
+                : new User(username, password, user.getFirstName(), user.getLastName(), user.getPhoneNumber(),
+                user.getAddress(), user.getEmail()));
+    }
+
+    @Override
+    public void updateInfo(String username, String columnName, String value) throws SQLException {
+        User user = users.get(username);
+        if (user == null) return;
+        String firstName = user.getFirstName(), lastName = user.getLastName(), phoneNumber = user.getPhoneNumber();
+        String address = user.getAddress(), email = user.getEmail();
+        switch (columnName) {
+            case "firstName" -> firstName = value;
+            case "lastName" -> lastName = value;
+            case "phoneNumber" -> phoneNumber = value;
+            case "address" -> address = value;
+            case "email" -> {
+                if (!value.equals(email) && !emails.add(value)) {
+                    throw new SQLIntegrityConstraintViolationException("Duplicate email " + value);
+                }
+                emails.remove(email);
+                email = value;
+            }
+            default -> throw new SQLException("Unknown column " + columnName);
+        }
+        users.put(username, new User(username, user.getPassword(), firstName, lastName, phoneNumber, address,
+                email));
+        logs.insert(username, ActivityType.UpdatePersonalInfo);
+    }
+}
@@ -0,0 +1,216 @@
+package com.bank.storage;
+
+import com.bank.controller.BankException;
+import com.bank.model.BankAccountStatus;
+import com.bank.model.BankConnection;
+import com.bank.model.BankConnectionPool;
+import com.bank.model.BankReferenceData;
+import com.bank.model.UserBankAccount;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+public class JdbcBankAccountRepository implements BankAccountRepository {
+    @Override
+    public List<UserBankAccount> findByUsername(String username) throws SQLException {
+        List<UserBankAccount> bankAccounts = new ArrayList<>();
+        try (BankConnection connection = BankConnectionPool.borrow()) {
+            String SQLStatement = "call getUserBankAccounts(?)";
+            PreparedStatement statement = connection.prepareStatement(SQLStatement);
+            statement.setString(1, username);
+            ResultSet resultSet = statement.executeQuery();
+            while (resultSet.next()) {
+                bankAccounts.add(readUserBankAccount(resultSet, username));
+            }
+            resultSet.close();
+        } catch (BankException e) {
+            e.run();
+        }
+        return bankAccounts;
+    }
+
+    @Override
+    public UserBankAccount findByID(Integer bankAccountID) throws SQLException {
+        UserBankAccount bankAccount = null;
+        try (BankConnection connection = BankConnectionPool.borrow()) {
+            String SQLStatement = "call getBankAccount(?)";
+            PreparedStatement statement = connection.prepareStatement(SQLStatement);
+            statement.setInt(1, bankAccountID);
+            ResultSet resultSet = statement.executeQuery();
+            if (resultSet.next()) {
+                bankAccount = readUserBankAccount(resultSet, resultSet.getString("username"));
+            }
+            resultSet.close();
+        } catch (BankException e) {
+            e.run();
+        }
+        return bankAccount;
+    }
+
+    @Override
+    public List<UserBankAccount> findForUpdate(List<Integer> bankAccountIDs) throws SQLException {
+        List<UserBankAccount> bankAccounts = new ArrayList<>(bankAccountIDs.size());
+        try (BankConnection connection = BankConnectionPool.borrow()) {
+            if (!connection.inTransaction()) {
+                throw new SQLException("Accounts can only be locked inside a transaction");
+            }
+            // InnoDB takes the row locks in primary key order, which is the ORDER BY
+            StringBuilder SQLStatement = new StringBuilder("SELECT id, username, typeID, currencyID, statusID, " +
+                    "balance, withdrawalLimit, createdAt FROM userBankAccount WHERE id IN (?");
+            SQLStatement.append(", ?".repeat(bankAccountIDs.size() - 1)).append(") ORDER BY id FOR UPDATE");
+            PreparedStatement statement = connection.prepareStatement(SQLStatement.toString());
+            for (int i = 0; i < bankAccountIDs.size(); ++i) {
+                statement.setInt(i + 1, bankAccountIDs.get(i));
+            }
+            ResultSet resultSet = statement.executeQuery();
+            while (resultSet.next()) {
+                bankAccounts.add(readUserBankAccount(resultSet, resultSet.getString("username")));
+            }
+            resultSet.close();
+        }
+        return bankAccounts;
+    }
+
+    @Override
+    public List<UserBankAccount> findRangeForUpdate(Integer firstBankAccountID, Integer lastBankAccountID)
+            throws SQLException {
+        List<UserBankAccount> bankAccounts = new ArrayList<>();
+        try (BankConnection connection = BankConnectionPool.borrow()) {
+            if (!connection.inTransaction()) {
+                throw new SQLException("Accounts can only be locked inside a transaction");
+            }
+            String SQLStatement = "SELECT id, username, typeID, currencyID, statusID, balance, withdrawalLimit, " +
+                    "createdAt FROM userBankAccount WHERE id BETWEEN ? AND ? ORDER BY id FOR UPDATE";
+            PreparedStatement statement = connection.prepareStatement(SQLStatement);
+            statement.setInt(1, firstBankAccountID);
+            statement.setInt(2, lastBankAccountID);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    bankAccounts.add(readUserBankAccount(resultSet, resultSet.getString("username")));
+                }
+            }
+        }
+        return bankAccounts;
+    }
+
+    @Override
+    public Integer findMaximumID() throws SQLException {
+        try (BankConnection connection = BankConnectionPool.borrow()) {
+            PreparedStatement statement = connection.prepareStatement("SELECT MAX(id) AS id FROM userBankAccount");
+            try (ResultSet resultSet = statement.executeQuery()) {
+                if (!resultSet.next()) return null;
+                int bankAccountID = resultSet.getInt("id");
+                return resultSet.wasNull() ? null : bankAccountID;
+            }
+        }
+    }
+
+    @Override
+    public List<Integer> findDueForWithdrawalLimitReset(Integer firstBankAccountID, Integer lastBankAccountID,
+                                                        int periodDays) throws SQLException {
+        List<Integer> bankAccountIDs = new ArrayList<>();
+        try (BankConnection connection = BankConnectionPool.borrow()) {
+            // a primary key range, so a sweep reads every row once however many are due
+            String SQLStatement = "SELECT id FROM userBankAccount WHERE id BETWEEN ? AND ? " +
+                    "AND lastResetWithdrawalLimit <= DATE_SUB(CURRENT_TIMESTAMP, INTERVAL ? DAY)";
+            PreparedStatement statement = connection.prepareStatement(SQLStatement);
+            statement.setInt(1, firstBankAccountID);
+            statement.setInt(2, lastBankAccountID);
+            statement.setInt(3, periodDays);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    bankAccountIDs.add(resultSet.getInt("id"));
+                }
+            }
+        }
+        return bankAccountIDs;
+    }
+
+    @Override
+    public int resetWithdrawalLimits(List<Integer> bankAccountIDs, int periodDays) throws SQLException {
+        if (bankAccountIDs.isEmpty()) return 0;
+        try (BankConnection connection = BankConnectionPool.borrow()) {
+            // only the given rows are locked, each for the length of this one statement
+            String SQLStatement = "UPDATE userBankAccount account JOIN bankAccountTypes accountType " +
+                    "ON accountType.id = account.typeID " +
+                    "SET account.withdrawalLimit = accountType.withdrawalLimit, " +
+                    "account.lastResetWithdrawalLimit = CURRENT_TIMESTAMP " +
+                    "WHERE account.id IN (?" + ", ?".repeat(bankAccountIDs.size() - 1) + ") " +
+                    "AND account.lastResetWithdrawalLimit <= DATE_SUB(CURRENT_TIMESTAMP, INTERVAL ? DAY)";
+            PreparedStatement statement = connection.prepareStatement(SQLStatement);
+            for (int i = 0; i < bankAccountIDs.size(); ++i) {
+                statement.setInt(i + 1, bankAccountIDs.get(i));
+            }
+            statement.setInt(bankAccountIDs.size() + 1, periodDays);
+            return statement.executeUpdate();
+        }
+    }
+
+    @Override
+    public void insert(UserBankAccount account) throws SQLException {
+        try (BankConnection connection = BankConnectionPool.borrow()) {
+            String SQLStatement = "call insertBankAccount(?,?,?,?)";
+            PreparedStatement statement = connection.prepareStatement(SQLStatement);
+            statement.setString(1, account.getUsername());
+            statement.setInt(2, BankReferenceData.idOf(account.getType()));
+            statement.setInt(3, BankReferenceData.idOf(account.getCurrency()));
+            statement.setInt(4, account.getBalance());
+            statement.executeUpdate();
+        } catch (BankException e) {
+            e.run();
+        }
+    }
+
+    @Override
+    public void addToBalances(Map<Integer, Integer> amountsByBankAccountID,
+                              Map<Integer, Integer> withdrawalsByBankAccountID) throws SQLException {
+        if (amountsByBankAccountID.isEmpty() && withdrawalsByBankAccountID.isEmpty()) return;
+        Set<Integer> bankAccountIDs = new TreeSet<>(amountsByBankAccountID.keySet());
+        bankAccountIDs.addAll(withdrawalsByBankAccountID.keySet());
+        try (BankConnection connection = BankConnectionPool.borrow()) {
+            // the decrease_withdrawalLimit trigger leaves alone a limit the statement changed itself
+            String SQLStatement = "UPDATE userBankAccount SET balance = balance + ?, " +
+                    "withdrawalLimit = withdrawalLimit - ? WHERE id = ?";
+            PreparedStatement statement = connection.prepareStatement(SQLStatement);
+            for (Integer bankAccountID : bankAccountIDs) {
+                statement.setInt(1, amountsByBankAccountID.getOrDefault(bankAccountID, 0));
+                statement.setInt(2, withdrawalsByBankAccountID.getOrDefault(bankAccountID, 0));
+                statement.setInt(3, bankAccountID);
+                statement.addBatch();
+            }
+            statement.executeBatch();
+        }
+    }
+
+    @Override
+    public void updateStatus(Integer bankAccountID, BankAccountStatus status) throws SQLException {
+        try (BankConnection connection = BankConnectionPool.borrow()) {
+            String SQLStatement = "call updateBankAccountStatus(?,?)";
+            PreparedStatement statement = connection.prepareStatement(SQLStatement);
+            statement.setInt(1, BankReferenceData.idOf(status));
+            statement.setInt(2, bankAccountID);
+            statement.executeUpdate();
+        } catch (BankException e) {
+            e.run();
+        }
+    }
+
+    static UserBankAccount readUserBankAccount(ResultSet resultSet, String username) throws SQLException {
+        Integer bankAccountID = resultSet.getInt("id");
+        Integer typeID = resultSet.getInt("typeID");
+        Integer currencyID = resultSet.getInt("currencyID");
+        Integer statusID = resultSet.getInt("statusID");
+        Integer balance = resultSet.getInt("balance");
+        Integer withdrawalLimit = resultSet.getInt("withdrawalLimit");
+        String date = resultSet.getString("createdAt");
+        return new UserBankAccount(username, bankAccountID, BankReferenceData.accountType(typeID),
+                BankReferenceData.currency(currencyID), BankReferenceData.status(statusID), balance,
+                withdrawalLimit, date);
+    }
+}
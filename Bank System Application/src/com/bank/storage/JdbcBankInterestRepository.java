@@ -0,0 +1,52 @@
+package com.bank.storage;
+
+import com.bank.model.BankConnection;
+import com.bank.model.BankConnectionPool;
+import com.bank.model.BankInterestCheckpoint;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+public class JdbcBankInterestRepository implements BankInterestRepository {
+    @Override
+    public List<BankInterestCheckpoint> findCheckpoints(String period, Integer firstBankAccountID,
+                                                        Integer lastBankAccountID) throws SQLException {
+        List<BankInterestCheckpoint> checkpoints = new ArrayList<>();
+        try (BankConnection connection = BankConnectionPool.borrow()) {
+            String SQLStatement = "SELECT period, firstBankAccountID, lastBankAccountID, accounts, interest " +
+                    "FROM interestCheckpoints WHERE period = ? AND firstBankAccountID <= ? " +
+                    "AND lastBankAccountID >= ? ORDER BY firstBankAccountID" +
+                    (connection.inTransaction() ? " FOR SHARE" : "");
+            PreparedStatement statement = connection.prepareStatement(SQLStatement);
+            statement.setString(1, period);
+            statement.setInt(2, lastBankAccountID);
+            statement.setInt(3, firstBankAccountID);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    checkpoints.add(new BankInterestCheckpoint(resultSet.getString("period"),
+                            resultSet.getInt("firstBankAccountID"), resultSet.getInt("lastBankAccountID"),
+                            resultSet.getInt("accounts"), resultSet.getLong("interest")));
+                }
+            }
+        }
+        return checkpoints;
+    }
+
+    @Override
+    public void insertCheckpoint(BankInterestCheckpoint checkpoint) throws SQLException {
+        try (BankConnection connection = BankConnectionPool.borrow()) {
+            String SQLStatement = "INSERT INTO interestCheckpoints (period, firstBankAccountID, " +
+                    "lastBankAccountID, accounts, interest) VALUES (?, ?, ?, ?, ?)";
+            PreparedStatement statement = connection.prepareStatement(SQLStatement);
+            statement.setString(1, checkpoint.getPeriod());
+            statement.setInt(2, checkpoint.getFirstBankAccountID());
+            statement.setInt(3, checkpoint.getLastBankAccountID());
+            statement.setInt(4, checkpoint.getAccounts());
+            statement.setLong(5, checkpoint.getInterest());
+            statement.executeUpdate();
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.bank.storage;
+
+import com.bank.model.BankConnection;
+import com.bank.model.BankConnectionPool;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+
+// The ledger and its snapshots are written by the triggers of userBankAccount, so only reading is left here.
+public class JdbcBankLedgerRepository implements BankLedgerRepository {
+    @Override
+    public Integer balanceBefore(Integer bankAccountID, LocalDateTime before) throws SQLException {
+        try (BankConnection connection = BankConnectionPool.borrow()) {
+            String SQLStatement = "call getBalanceBefore(?,?)";
+            PreparedStatement statement = connection.prepareStatement(SQLStatement);
+            statement.setInt(1, bankAccountID);
+            statement.setTimestamp(2, Timestamp.valueOf(before));
+            try (ResultSet resultSet = statement.executeQuery()) {
+                if (!resultSet.next()) return null;
+                int balance = resultSet.getInt("balance");
+                return resultSet.wasNull() ? null : balance;
+            }
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.bank.storage;
+
+import com.bank.controller.BankException;
+import com.bank.model.BankAuditLogWriter;
+import com.bank.model.BankConnection;
+import com.bank.model.BankConnectionPool;
+import com.bank.model.BankReferenceData;
+import com.bank.model.Log;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+
+public class JdbcBankLogRepository implements BankLogRepository {
+    @Override
+    public void insert(Log log) throws SQLException {
+        // a log written inside a posting commits or rolls back together with it
+        if (!BankConnectionPool.inTransaction()) {
+            BankAuditLogWriter.submit(log);
+            return;
+        }
+        try (BankConnection connection = BankConnectionPool.borrow()) {
+            String SQLStatement = "call insertLog(?, ?)";
+            PreparedStatement statement = connection.prepareStatement(SQLStatement);
+            statement.setString(1, log.getUsername());
+            statement.setInt(2, BankReferenceData.idOf(log.getType()));
+            statement.executeUpdate();
+        } catch (BankException e) {
+            e.run();
+        }
+    }
+
+    @Override
+    public void insertAll(List<Log> logs) throws SQLException {
+        if (!BankConnectionPool.inTransaction()) {
+            for (Log log : logs) {
+                BankAuditLogWriter.submit(log);
+            }
+            return;
+        }
+        JdbcBankRows.insertAll("logs", "username, activityID", 2, logs, (statement, index, log) -> {
+            statement.setString(index, log.getUsername());
+            statement.setInt(index + 1, BankReferenceData.idOf(log.getType()));
+        });
+    }
+
+    @Override
+    public List<Log> findByUsername(String username, int limit, Integer beforeID) throws SQLException {
+        List<Log> logs = new ArrayList<>(limit);
+        try (BankConnection connection = BankConnectionPool.borrow()) {
+            String SQLStatement = "call getUserLogs(?,?,?)";
+            PreparedStatement statement = connection.prepareStatement(SQLStatement);
+            statement.setString(1, username);
+            statement.setInt(2, limit);
+            statement.setObject(3, beforeID, Types.INTEGER);
+            ResultSet resultSet = statement.executeQuery();
+            while (resultSet.next()) {
+                Integer logID = resultSet.getInt("id");
+                Integer activityID = resultSet.getInt("activityID");
+                String createdAt = resultSet.getString("createdAt");
+                logs.add(new Log(logID, username, BankReferenceData.activityType(activityID), createdAt));
+            }
+            resultSet.close();
+        } catch (BankException e) {
+            e.run();
+        }
+        return logs;
+    }
+}
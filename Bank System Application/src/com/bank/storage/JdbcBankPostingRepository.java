@@ -0,0 +1,70 @@
+package com.bank.storage;
+
+import com.bank.model.BankConnection;
+import com.bank.model.BankConnectionPool;
+import com.bank.model.BankOperationStatus;
+import com.bank.model.BankPosting;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+// One call of a posting procedure per operation: the locks, the checks and every row are written by the
+// server, so an operation costs a single round trip.
+public class JdbcBankPostingRepository implements BankPostingRepository {
+    @Override
+    public BankPosting deposit(String username, Integer bankAccountID, int amount, String idempotencyKey)
+            throws SQLException {
+        return post("call postDeposit(?,?,?,?)", bankAccountID, null, username, amount, null, idempotencyKey);
+    }
+
+    @Override
+    public BankPosting withdraw(String username, Integer bankAccountID, int amount, String idempotencyKey)
+            throws SQLException {
+        return post("call postWithdrawal(?,?,?,?)", bankAccountID, null, username, amount, null,
+                idempotencyKey);
+    }
+
+    @Override
+    public BankPosting transfer(String username, Integer bankAccountID, Integer otherBankAccountID, int amount,
+                                int otherAmount, String idempotencyKey) throws SQLException {
+        return post("call postTransfer(?,?,?,?,?,?)", bankAccountID, otherBankAccountID, username, amount,
+                otherAmount, idempotencyKey);
+    }
+
+    private static BankPosting post(String SQLStatement, Integer bankAccountID, Integer otherBankAccountID,
+                                    String username, int amount, Integer otherAmount, String idempotencyKey)
+            throws SQLException {
+        try (BankConnection connection = BankConnectionPool.borrow()) {
+            // the procedure's START TRANSACTION would silently commit the caller's transaction
+            if (connection.inTransaction()) {
+                throw new SQLException("A posting runs in its own transaction, not inside another one");
+            }
+            PreparedStatement statement = connection.prepareStatement(SQLStatement);
+            int index = 1;
+            statement.setInt(index++, bankAccountID);
+            if (otherBankAccountID != null) {
+                statement.setInt(index++, otherBankAccountID);
+            }
+            statement.setString(index++, username);
+            statement.setInt(index++, amount);
+            if (otherAmount != null) {
+                statement.setInt(index++, otherAmount);
+            }
+            statement.setString(index, idempotencyKey);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                if (!resultSet.next()) {
+                    throw new SQLException("The posting procedure returned no result");
+                }
+                return new BankPosting(BankOperationStatus.valueOf(resultSet.getString("status")),
+                        getInteger(resultSet, "balance"), getInteger(resultSet, "withdrawalLimit"),
+                        getInteger(resultSet, "otherBalance"), resultSet.getBoolean("replayed"));
+            }
+        }
+    }
+
+    private static Integer getInteger(ResultSet resultSet, String column) throws SQLException {
+        int value = resultSet.getInt(column);
+        return resultSet.wasNull() ? null : value;
+    }
+}
@@ -0,0 +1,50 @@
+package com.bank.storage;
+
+import com.bank.model.BankConnection;
+import com.bank.model.BankConnectionPool;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.List;
+
+// Multi-row INSERTs for writing many rows at once, e.g. the transaction rows of a batch transfer.
+class JdbcBankRows {
+    private JdbcBankRows() {
+    }
+
+    // rows are split into these sizes so only a handful of distinct statements reach the statement cache
+    private static final int[] chunkSizes = {1024, 256, 64, 16, 4, 1};
+
+    interface RowBinder<T> {
+        // binds the columns of the row starting at the given parameter index
+        void bind(PreparedStatement statement, int index, T row) throws SQLException;
+    }
+
+    static <T> void insertAll(String table, String columns, int columnCount, List<T> rows, RowBinder<T> binder)
+            throws SQLException {
+        if (rows.isEmpty()) return;
+        try (BankConnection connection = BankConnectionPool.borrow()) {
+            int index = 0;
+            for (int chunkSize : chunkSizes) {
+                while (rows.size() - index >= chunkSize) {
+                    PreparedStatement statement = connection.prepareStatement(
+                            insertStatementFor(table, columns, columnCount, chunkSize));
+                    for (int row = 0; row < chunkSize; ++row) {
+                        binder.bind(statement, columnCount * row + 1, rows.get(index++));
+                    }
+                    statement.executeUpdate();
+                }
+            }
+        }
+    }
+
+    private static String insertStatementFor(String table, String columns, int columnCount, int rows) {
+        String placeholders = "(?" + ", ?".repeat(columnCount - 1) + ")";
+        StringBuilder SQLStatement = new StringBuilder("INSERT INTO ").append(table).append(" (").append(columns)
+                .append(") VALUES ").append(placeholders);
+        for (int row = 1; row < rows; ++row) {
+            SQLStatement.append(", ").append(placeholders);
+        }
+        return SQLStatement.toString();
+    }
+}
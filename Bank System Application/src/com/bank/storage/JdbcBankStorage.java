@@ -0,0 +1,93 @@
+package com.bank.storage;
+
+import com.bank.model.BankAuditLogWriter;
+import com.bank.model.BankConnection;
+import com.bank.model.BankConnectionPool;
+import com.bank.model.BankExchangeRates;
+import com.bank.model.BankReferenceData;
+
+import java.io.IOException;
+import java.sql.SQLException;
+
+public class JdbcBankStorage implements BankStorage {
+    private final BankUserRepository users = new JdbcBankUserRepository();
+    private final BankAccountRepository accounts = new JdbcBankAccountRepository();
+    private final BankTransactionRepository transactions = new JdbcBankTransactionRepository();
+    private final BankLogRepository logs = new JdbcBankLogRepository();
+    // with bank.journal.enabled, postings are acknowledged once they are in a local write-ahead journal
+    private final JournaledBankPostingRepository journaledPostings = Boolean.getBoolean("bank.journal.enabled")
+            ? new JournaledBankPostingRepository(new JdbcBankPostingRepository()) : null;
+    private final BankPostingRepository postings = journaledPostings != null ? journaledPostings
+            : new JdbcBankPostingRepository();
+    private final BankLedgerRepository ledger = new JdbcBankLedgerRepository();
+    private final BankInterestRepository interest = new JdbcBankInterestRepository();
+
+    @Override
+    public BankUserRepository users() {
+        return users;
+    }
+
+    @Override
+    public BankAccountRepository accounts() {
+        return accounts;
+    }
+
+    @Override
+    public BankTransactionRepository transactions() {
+        return transactions;
+    }
+
+    @Override
+    public BankLogRepository logs() {
+        return logs;
+    }
+
+    @Override
+    public BankPostingRepository postings() {
+        return postings;
+    }
+
+    @Override
+    public BankLedgerRepository ledger() {
+        return ledger;
+    }
+
+    @Override
+    public BankInterestRepository interest() {
+        return interest;
+    }
+
+    @Override
+    public BankTransactionScope beginTransaction() throws SQLException {
+        BankConnection connection = BankConnectionPool.borrow();
+        try {
+            connection.beginTransaction();
+        } catch (SQLException e) {
+            connection.close();
+            throw e;
+        }
+        return connection;
+    }
+
+    @Override
+    public void start() throws SQLException {
+        BankReferenceData.load();
+        BankExchangeRates.start();
+        if (journaledPostings != null) {
+            try {
+                journaledPostings.start();
+            } catch (IOException e) {
+                throw new SQLException("Cannot open the posting journal", e);
+            }
+        }
+    }
+
+    @Override
+    public void shutdown() {
+        if (journaledPostings != null) journaledPostings.shutdown();
+        BankExchangeRates.shutdown();
+        BankReferenceData.shutdown();
+        BankAuditLogWriter.shutdown();
+        BankConnectionPool.shutdown();
+    }
+}
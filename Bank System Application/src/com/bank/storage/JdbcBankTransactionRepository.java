@@ -0,0 +1,121 @@
+package com.bank.storage;
+
+import com.bank.controller.BankException;
+import com.bank.model.BankConnection;
+import com.bank.model.BankConnectionPool;
+import com.bank.model.BankReferenceData;
+import com.bank.model.Transaction;
+
+import java.io.IOException;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+
+public class JdbcBankTransactionRepository implements BankTransactionRepository {
+    // Integer.MIN_VALUE asks MySQL Connector/J to stream rows one by one instead of buffering the result
+    private static final int exportFetchSize = Integer.getInteger("bank.export.fetchSize", Integer.MIN_VALUE);
+
+    @Override
+    public void insert(Transaction transaction) throws SQLException {
+        try (BankConnection connection = BankConnectionPool.borrow()) {
+            String SQLStatement = "call insertTransaction(?, ?, ?, ?)";
+            PreparedStatement statement = connection.prepareStatement(SQLStatement);
+            statement.setString(1, transaction.getUsername());
+            statement.setObject(2, transaction.getBankAccountID(), Types.INTEGER);
+            statement.setInt(3, transaction.getAmount());
+            statement.setInt(4, BankReferenceData.idOf(transaction.getType()));
+            statement.executeUpdate();
+        } catch (BankException e) {
+            e.run();
+        }
+    }
+
+    @Override
+    public void insertAll(List<Transaction> transactions) throws SQLException {
+        JdbcBankRows.insertAll("transactions", "username, bankAccountID, amount, typeID", 4, transactions,
+                (statement, index, transaction) -> {
+                    statement.setString(index, transaction.getUsername());
+                    statement.setObject(index + 1, transaction.getBankAccountID(), Types.INTEGER);
+                    statement.setInt(index + 2, transaction.getAmount());
+                    statement.setInt(index + 3, BankReferenceData.idOf(transaction.getType()));
+                });
+    }
+
+    @Override
+    public List<Transaction> findByUsername(String username, int limit, Integer beforeID) throws SQLException {
+        List<Transaction> transactions = new ArrayList<>(limit);
+        try (BankConnection connection = BankConnectionPool.borrow()) {
+            String SQLStatement = "call getUserTransactions(?,?,?)";
+            PreparedStatement statement = connection.prepareStatement(SQLStatement);
+            statement.setString(1, username);
+            statement.setInt(2, limit);
+            statement.setObject(3, beforeID, Types.INTEGER);
+            ResultSet result = statement.executeQuery();
+            while (result.next()) {
+                transactions.add(readTransaction(result, username));
+            }
+            result.close();
+        } catch (BankException e) {
+            e.run();
+        }
+        return transactions;
+    }
+
+    @Override
+    public List<Transaction> findByBankAccountID(Integer bankAccountID, int limit, Integer beforeID)
+            throws SQLException {
+        List<Transaction> transactions = new ArrayList<>(limit);
+        try (BankConnection connection = BankConnectionPool.borrow()) {
+            String SQLStatement = "call getAccountTransactions(?,?,?)";
+            PreparedStatement statement = connection.prepareStatement(SQLStatement);
+            statement.setInt(1, bankAccountID);
+            statement.setInt(2, limit);
+            statement.setObject(3, beforeID, Types.INTEGER);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    transactions.add(readTransaction(resultSet, resultSet.getString("username")));
+                }
+            }
+        }
+        return transactions;
+    }
+
+    @Override
+    public long forEachByUsername(String username, BankRowHandler<Transaction> handler)
+            throws SQLException, IOException {
+        long rows = 0;
+        try (BankConnection connection = BankConnectionPool.borrow()) {
+            String SQLStatement = "SELECT id, bankAccountID, amount, typeID, createdAt FROM transactions " +
+                    "WHERE username = ? ORDER BY id";
+            // a streaming statement keeps the connection busy until it is closed, so it is not cached
+            try (PreparedStatement statement = connection.getConnection().prepareStatement(SQLStatement,
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+                statement.setFetchSize(exportFetchSize);
+                statement.setString(1, username);
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    while (resultSet.next()) {
+                        handler.handle(readTransaction(resultSet, username));
+                        ++rows;
+                    }
+                }
+            }
+        } catch (BankException e) {
+            e.run();
+        }
+        return rows;
+    }
+
+    private static Transaction readTransaction(ResultSet resultSet, String username) throws SQLException {
+        Integer transactionID = resultSet.getInt("id");
+        Integer bankAccountID = resultSet.getInt("bankAccountID");
+        if (resultSet.wasNull()) bankAccountID = null;
+        Integer amount = resultSet.getInt("amount");
+        Integer typeID = resultSet.getInt("typeID");
+        String date = resultSet.getString("createdAt");
+        return new Transaction(transactionID, username, bankAccountID, amount,
+                BankReferenceData.transactionType(typeID), date);
+    }
+}
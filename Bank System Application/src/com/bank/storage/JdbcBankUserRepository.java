@@ -0,0 +1,140 @@
+package com.bank.storage;
+
+import com.bank.controller.BankException;
+import com.bank.model.BankConnection;
+import com.bank.model.BankConnectionPool;
+import com.bank.model.User;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+public class JdbcBankUserRepository implements BankUserRepository {
+    @Override
+    public String findPassword(String username) throws SQLException {
+        String password = null;
+        try (BankConnection connection = BankConnectionPool.borrow()) {
+            String SQLStatement = "call getUserPassword(?)";
+            PreparedStatement statement = connection.prepareStatement(SQLStatement);
+            statement.setString(1, username);
+            ResultSet resultSet = statement.executeQuery();
+            if (resultSet.next()) {
+                password = resultSet.getString("password");
+            }
+            resultSet.close();
+        } catch (BankException e) {
+            e.run();
+        }
+        return password;
+    }
+
+    @Override
+    public User findLogin(String username) throws SQLException {
+        User user = null;
+        try (BankConnection connection = BankConnectionPool.borrow()) {
+            String SQLStatement = "call getUserLogin(?)";
+            PreparedStatement statement = connection.prepareStatement(SQLStatement);
+            statement.setString(1, username);
+            ResultSet resultSet = statement.executeQuery();
+            if (resultSet.next()) {
+                user = new User(username, resultSet.getString("password"), resultSet.getString("firstName"),
+                        resultSet.getString("lastName"), resultSet.getString("phoneNumber"),
+                        resultSet.getString("address"), resultSet.getString("email"));
+            }
+            resultSet.close();
+        } catch (BankException e) {
+            e.run();
+        }
+        return user;
+    }
+
+    @Override
+    public boolean isUniqueEmail(String email) throws SQLException {
+        boolean isUniqueEmail = false;
+        try (BankConnection connection = BankConnectionPool.borrow()) {
+            String SQLStatement = "call checkUniqueEmail(?)";
+            PreparedStatement statement = connection.prepareStatement(SQLStatement);
+            statement.setString(1, email);
+            ResultSet resultSet = statement.executeQuery();
+            resultSet.next();
+            isUniqueEmail = resultSet.getBoolean("isUniqueEmail");
+            resultSet.close();
+        } catch (BankException e) {
+            e.run();
+        }
+        return isUniqueEmail;
+    }
+
+    @Override
+    public void insert(User user) throws SQLException {
+        try (BankConnection connection = BankConnectionPool.borrow()) {
+            connection.beginTransaction();
+            insertIntoUsersTable(connection, user);
+            insertIntoUsersInfoTable(connection, user);
+            connection.commit();
+        } catch (BankException e) {
+            e.run();
+        }
+    }
+
+    private static void insertIntoUsersTable(BankConnection connection, User user) throws SQLException {
+        String SQLStatement = "call insertUser(?,?)";
+        PreparedStatement statement = connection.prepareStatement(SQLStatement);
+        statement.setString(1, user.getUsername());
+        statement.setString(2, user.getPassword());
+        statement.executeUpdate();
+    }
+
+    private static void insertIntoUsersInfoTable(BankConnection connection, User user) throws SQLException {
+        String SQLStatement = "call insertUserInfo(?,?,?,?,?,?)";
+        PreparedStatement statement = connection.prepareStatement(SQLStatement);
+        statement.setString(1, user.getUsername());
+        statement.setString(2, user.getFirstName());
+        statement.setString(3, user.getLastName());
+        statement.setString(4, user.getPhoneNumber());
+        statement.setString(5, user.getAddress());
+        statement.setString(6, user.getEmail());
+        statement.executeUpdate();
+    }
+
+    @Override
+    public void updatePassword(String username, String password) throws SQLException {
+        try (BankConnection connection = BankConnectionPool.borrow()) {
+            String SQLStatement = "call updateUserPassword(?,?)";
+            PreparedStatement statement = connection.prepareStatement(SQLStatement);
+            statement.setString(1, password);
+            statement.setString(2, username);
+            statement.executeUpdate();
+        } catch (BankException e) {
+            e.run();
+        }
+    }
+
+    @Override
+    public void rehashPassword(String username, String oldPassword, String password) throws SQLException {
+        try (BankConnection connection = BankConnectionPool.borrow()) {
+            String SQLStatement = "call rehashUserPassword(?,?,?)";
+            PreparedStatement statement = connection.prepareStatement(SQLStatement);
+            statement.setString(1, username);
+            statement.setString(2, oldPassword);
+            statement.setString(3, password);
+            statement.executeUpdate();
+        } catch (BankException e) {
+            e.run();
+        }
+    }
+
+    @Override
+    public void updateInfo(String username, String columnName, String value) throws SQLException {
+        try (BankConnection connection = BankConnectionPool.borrow()) {
+            String SQLStatement = "call updateUserInfo(?,?,?)";
+            PreparedStatement statement = connection.prepareStatement(SQLStatement);
+            statement.setString(1, columnName);
+            statement.setString(2, value);
+            statement.setString(3, username);
+            statement.executeUpdate();
+        } catch (BankException e) {
+            e.run();
+        }
+    }
+}
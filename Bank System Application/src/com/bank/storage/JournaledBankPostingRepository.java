@@ -0,0 +1,354 @@
+package com.bank.storage;
+
+import com.bank.model.BankOperationStatus;
+import com.bank.model.BankPosting;
+import com.bank.model.TransactionType;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.sql.SQLException;
+import java.sql.SQLRecoverableException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+// Acknowledges a posting as ACCEPTED as soon as it is in the local posting journal, so a short database stall
+// doesn't hold the user up, and posts the journaled postings to the database from background threads,
+// retrying until the database takes them. Every journaled posting carries an idempotency key (the
+// caller's or a generated one, returned with the ACCEPTED posting), so a posting that reached the database
+// just before a crash is answered from the idempotencyKeys table instead of being posted twice when the
+// journal is replayed on restart. The rules are still checked by the database: a journaled withdrawal or
+// transfer that breaks one is rejected then, and its result can be asked for with the same idempotency key.
+//
+// Every posting goes through the journal, so the postings of an account reach the database in the order
+// they were accepted: the journal is read in order and a posting is handed to one of bank.journal.replayers
+// threads once no earlier posting of its accounts is still being posted. Postings of different accounts are
+// posted side by side, so the journal drains at up to that many database round trips at a time; the
+// postings of one account (a hot account, a batch of transfers into one) still go one round trip after the
+// other. When the journal is full a posting waits up to bank.journal.appendTimeoutMillis for the replayers
+// to catch up, and is refused with an SQLException when they don't or when the journal fails.
+//
+// A posting journaled longer ago than bank.journal.idempotencyWindowMillis is not posted, as its key may
+// have been purged from the idempotencyKeys table (purge_idempotency_keys keeps them a day) and a posting
+// that reached the database before a crash would be posted again; it is set aside like a failed one.
+// While the database is unreachable (a connection failure or a timed out wait for a pooled connection) the
+// replayers wait for it; a posting that fails for any other reason is tried bank.journal.maximumAttempts
+// times and then, like a record that can't be decoded or posted at all, is set aside in the
+// postings.dead-letter file of the journal directory so the ones after it go on.
+public class JournaledBankPostingRepository implements BankPostingRepository {
+    private static final Logger logger = Logger.getLogger(JournaledBankPostingRepository.class.getName());
+
+    private static final Path directory = Path.of(System.getProperty("bank.journal.directory", "journal"));
+    private static final int segmentBytes = Math.max(64 * 1024,
+            Integer.getInteger("bank.journal.segmentBytes", 16 * 1024 * 1024));
+    private static final int maximumSegments = Integer.getInteger("bank.journal.maximumSegments", 16);
+    // forces every record to the disk before acknowledging it, without it a journaled posting survives a
+    // crash of the application but not one of the machine
+    private static final boolean sync = Boolean.parseBoolean(System.getProperty("bank.journal.sync", "true"));
+    private static final long shutdownMillis = Long.getLong("bank.journal.shutdownMillis", 10_000L);
+    private static final long appendTimeoutMillis = Long.getLong("bank.journal.appendTimeoutMillis", 5_000L);
+    private static final int maximumAttempts = Integer.getInteger("bank.journal.maximumAttempts", 5);
+    private static final int replayers = Integer.getInteger("bank.journal.replayers", 4);
+    // as long as the purge_idempotency_keys event keeps the keys
+    private static final long idempotencyWindowMillis = Long.getLong("bank.journal.idempotencyWindowMillis",
+            86_400_000L);
+    private static final String deadLetterFile = "postings.dead-letter";
+    private static final long pollMillis = 100;
+    private static final long maximumBackoffMillis = 1_000;
+
+    private final BankPostingRepository database;
+    private final LongAdder journaled = new LongAdder();
+    private final LongAdder applied = new LongAdder();
+    private final LongAdder refused = new LongAdder();
+    private final LongAdder deadLettered = new LongAdder();
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition laneFreed = lock.newCondition();
+    // the accounts of the postings being posted and their sequences, guarded by the lock
+    private final Set<Integer> busyAccounts = new HashSet<>();
+    private final TreeSet<Long> postingSequences = new TreeSet<>();
+    private long dispatchedSequence;
+    private long checkpointedSequence;
+    private final ReentrantLock deadLetterLock = new ReentrantLock();
+    private volatile BankPostingJournal journal;
+    private volatile boolean accepting;
+    private volatile boolean running;
+    private Thread dispatcher;
+    private ExecutorService replayerPool;
+
+    JournaledBankPostingRepository(BankPostingRepository database) {
+        this.database = database;
+    }
+
+    @Override
+    public BankPosting deposit(String username, Integer bankAccountID, int amount, String idempotencyKey)
+            throws SQLException {
+        if (amount <= 0) return BankPosting.rejected(BankOperationStatus.INVALID_AMOUNT);
+        return journal(TransactionType.DEPOSIT, username, bankAccountID, null, amount, amount, idempotencyKey);
+    }
+
+    @Override
+    public BankPosting withdraw(String username, Integer bankAccountID, int amount, String idempotencyKey)
+            throws SQLException {
+        if (amount <= 0) return BankPosting.rejected(BankOperationStatus.INVALID_AMOUNT);
+        return journal(TransactionType.WITHDRAWAL, username, bankAccountID, null, amount, amount, idempotencyKey);
+    }
+
+    @Override
+    public BankPosting transfer(String username, Integer bankAccountID, Integer otherBankAccountID, int amount,
+                                int otherAmount, String idempotencyKey) throws SQLException {
+        if (amount <= 0) return BankPosting.rejected(BankOperationStatus.INVALID_AMOUNT);
+        if (bankAccountID.equals(otherBankAccountID)) return BankPosting.rejected(BankOperationStatus.SAME_ACCOUNT);
+        return journal(TransactionType.TRANSFER, username, bankAccountID, otherBankAccountID, amount, otherAmount,
+                idempotencyKey);
+    }
+
+    // recovers the postings a previous run left in the journal and starts posting them
+    void start() throws IOException {
+        journal = BankPostingJournal.open(directory, segmentBytes, maximumSegments, sync);
+        running = true;
+        accepting = true;
+        replayerPool = Executors.newFixedThreadPool(replayers, task -> {
+            Thread thread = new Thread(task, "bank-posting-journal-replayer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        dispatcher = new Thread(this::dispatch, "bank-posting-journal-dispatcher");
+        dispatcher.setDaemon(true);
+        dispatcher.start();
+    }
+
+    // waits a while for the journal to drain, whatever is left is posted by the next run
+    void shutdown() {
+        BankPostingJournal current = journal;
+        if (current == null) return;
+        accepting = false;
+        long deadline = System.currentTimeMillis() + shutdownMillis;
+        try {
+            while (current.getPendingPostings() > 0 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(pollMillis);
+            }
+            running = false;
+            dispatcher.join(shutdownMillis);
+            replayerPool.shutdown();
+            replayerPool.awaitTermination(shutdownMillis, TimeUnit.MILLISECONDS);
+            journal = null;
+            current.close();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            logger.log(Level.WARNING, "Closing the posting journal failed", e);
+        }
+    }
+
+    public long getJournaledPostings() {
+        return journaled.sum();
+    }
+
+    public long getAppliedPostings() {
+        return applied.sum();
+    }
+
+    // not journaled, because the journal stayed full or failed
+    public long getRefusedPostings() {
+        return refused.sum();
+    }
+
+    public long getDeadLetteredPostings() {
+        return deadLettered.sum();
+    }
+
+    public long getPendingPostings() {
+        BankPostingJournal current = journal;
+        return current == null ? 0 : current.getPendingPostings();
+    }
+
+    private BankPosting journal(TransactionType type, String username, Integer bankAccountID,
+                                Integer otherBankAccountID, int amount, int otherAmount, String idempotencyKey)
+            throws SQLException {
+        BankPostingJournal current = journal;
+        if (!accepting || current == null) {
+            refused.increment();
+            throw new SQLException("The posting journal is closed");
+        }
+        String key = idempotencyKey != null ? idempotencyKey : UUID.randomUUID().toString();
+        try {
+            if (current.append(type, username, bankAccountID, otherBankAccountID, amount, otherAmount, key,
+                    appendTimeoutMillis) == null) {
+                refused.increment();
+                throw new SQLException("The posting journal stayed full for " + appendTimeoutMillis + "ms");
+            }
+        } catch (IOException e) {
+            refused.increment();
+            throw new SQLException("Cannot journal the posting", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            refused.increment();
+            throw new SQLException("Interrupted while waiting for room in the posting journal", e);
+        }
+        journaled.increment();
+        return BankPosting.accepted(key);
+    }
+
+    private BankPosting post(TransactionType type, String username, Integer bankAccountID,
+                             Integer otherBankAccountID, int amount, int otherAmount, String idempotencyKey)
+            throws SQLException {
+        if (type == null) throw new IllegalArgumentException("The journal record is malformed");
+        return switch (type) {
+            case DEPOSIT -> database.deposit(username, bankAccountID, amount, idempotencyKey);
+            case WITHDRAWAL -> database.withdraw(username, bankAccountID, amount, idempotencyKey);
+            case TRANSFER -> database.transfer(username, bankAccountID, otherBankAccountID, amount, otherAmount,
+                    idempotencyKey);
+            case INTEREST -> throw new IllegalArgumentException("Interest is not posted through the journal");
+        };
+    }
+
+    // reads the journal in order and hands each posting to a replayer once its accounts are free
+    private void dispatch() {
+        try {
+            while (running) {
+                BankPostingJournal.JournaledPosting posting = journal.next(pollMillis);
+                if (posting == null) continue;
+                List<Integer> accounts = accountsOf(posting);
+                lock.lock();
+                try {
+                    while (postingSequences.size() >= replayers || !Collections.disjoint(busyAccounts, accounts)) {
+                        if (!running) return;
+                        laneFreed.await(pollMillis, TimeUnit.MILLISECONDS);
+                    }
+                    busyAccounts.addAll(accounts);
+                    postingSequences.add(posting.sequence);
+                    dispatchedSequence = posting.sequence;
+                } finally {
+                    lock.unlock();
+                }
+                replayerPool.execute(() -> replay(posting, accounts));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void replay(BankPostingJournal.JournaledPosting posting, List<Integer> accounts) {
+        boolean done = false;
+        try {
+            done = post(posting);
+        } finally {
+            finish(posting, accounts, done);
+        }
+    }
+
+    // false when the replayer stopped before the posting was posted or set aside
+    private boolean post(BankPostingJournal.JournaledPosting posting) {
+        int failures = 0;
+        int attempts = 0;
+        while (running) {
+            try {
+                long age = System.currentTimeMillis() - posting.journaledAt;
+                if (posting.type != null && age >= idempotencyWindowMillis) {
+                    deadLetter(posting, new SQLException("Journaled at " + Instant.ofEpochMilli(posting.journaledAt)
+                            + ", longer ago than the idempotency window of " + idempotencyWindowMillis + "ms"));
+                    return true;
+                }
+                BankPosting result;
+                try {
+                    result = post(posting.type, posting.username, posting.bankAccountID,
+                            posting.otherBankAccountID, posting.amount, posting.otherAmount, posting.idempotencyKey);
+                } catch (SQLException e) {
+                    if (isUnavailable(e) || ++attempts < maximumAttempts) throw e;
+                    deadLetter(posting, e);
+                    return true;
+                } catch (RuntimeException e) {
+                    deadLetter(posting, e);
+                    return true;
+                }
+                BankStorageEngine.postingListener().posted(posting.bankAccountID, posting.otherBankAccountID, result);
+                applied.increment();
+                if (failures > 0) logger.info("The database takes journaled postings again");
+                return true;
+            } catch (SQLException | IOException | RuntimeException e) {
+                // the same posting is tried again, posting it twice is answered by its idempotency key
+                if (failures++ == 0) logger.log(Level.WARNING, "Journaled postings wait for the database", e);
+                try {
+                    Thread.sleep(Math.min(maximumBackoffMillis, 10L << Math.min(failures, 7)));
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    return false;
+                }
+            }
+        }
+        return false;
+    }
+
+    // frees the posting's accounts and moves the checkpoint up to the oldest posting still being posted; a
+    // posting that wasn't done keeps the checkpoint below it, so the next run posts it again
+    private void finish(BankPostingJournal.JournaledPosting posting, List<Integer> accounts, boolean done) {
+        lock.lock();
+        try {
+            busyAccounts.removeAll(accounts);
+            laneFreed.signalAll();
+            if (!done) return;
+            postingSequences.remove(posting.sequence);
+            long sequence = postingSequences.isEmpty() ? dispatchedSequence : postingSequences.first() - 1;
+            if (sequence > checkpointedSequence) {
+                journal.markApplied(sequence);
+                checkpointedSequence = sequence;
+            }
+        } catch (IOException e) {
+            logger.log(Level.WARNING, "Writing the posting journal checkpoint failed", e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // a malformed record has none
+    private static List<Integer> accountsOf(BankPostingJournal.JournaledPosting posting) {
+        if (posting.type == null) return List.of();
+        return posting.otherBankAccountID == null ? List.of(posting.bankAccountID)
+                : List.of(posting.bankAccountID, posting.otherBankAccountID);
+    }
+
+    // logged and written to the dead letter file
+    private void deadLetter(BankPostingJournal.JournaledPosting posting, Exception failure) throws IOException {
+        String record = posting.sequence + " " + posting.type + " " + posting.username + " " + posting.bankAccountID +
+                " " + posting.otherBankAccountID + " " + posting.amount + " " + posting.otherAmount + " " +
+                posting.idempotencyKey + " " + failure + System.lineSeparator();
+        logger.log(Level.SEVERE, "Setting aside journaled posting " + posting.sequence + ", it cannot be posted",
+                failure);
+        deadLetterLock.lock();
+        try {
+            if (sync) {
+                Files.writeString(directory.resolve(deadLetterFile), record, StandardCharsets.UTF_8,
+                        StandardOpenOption.CREATE, StandardOpenOption.APPEND, StandardOpenOption.SYNC);
+            } else {
+                Files.writeString(directory.resolve(deadLetterFile), record, StandardCharsets.UTF_8,
+                        StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            }
+        } finally {
+            deadLetterLock.unlock();
+        }
+        deadLettered.increment();
+    }
+
+    // the database is away or every pooled connection is busy (the pool's borrow timeout), nothing can be
+    // posted until that changes; the failures of the application's own checks have no SQLState
+    private static boolean isUnavailable(SQLException e) {
+        return e instanceof SQLRecoverableException || e instanceof SQLTransientConnectionException
+                || e.getSQLState() != null && e.getSQLState().startsWith("08");
+    }
+}
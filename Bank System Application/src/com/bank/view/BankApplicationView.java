@@ -12,6 +12,6 @@ public class BankApplicationView {
 
     public static String takeOption() {
         BankUtil.showTakeFunctionNumber();
-        return BankUtil.scanner.nextLine();
+        return BankUtil.scanner().nextLine();
     }
 }
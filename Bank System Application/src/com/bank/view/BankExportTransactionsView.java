@@ -0,0 +1,33 @@
+package com.bank.view;
+
+import com.bank.model.BankExportReport;
+import com.bank.model.BankUtil;
+
+public class BankExportTransactionsView {
+    public static void showFormats() {
+        BankUtil.createHeader("Export format");
+        BankUtil.createOrderedList(new String[]{
+                "CSV",
+                "NDJSON (one JSON object per line)"
+        });
+    }
+
+    public static String takeFormat() {
+        BankUtil.out().print("Enter the format number(-1 to exit): ");
+        return BankUtil.scanner().nextLine();
+    }
+
+    public static String takeFilePath(String defaultFilePath) {
+        BankUtil.out().print("Enter the file to export to (empty for " + defaultFilePath + "): ");
+        return BankUtil.scanner().nextLine();
+    }
+
+    public static void showReport(BankExportReport report) {
+        BankUtil.createMessage("Export finished");
+        BankUtil.out().println(report);
+    }
+
+    public static void showFailedExport(String reason) {
+        BankUtil.createMessage("The export failed: " + reason);
+    }
+}
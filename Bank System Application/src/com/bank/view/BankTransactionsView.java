@@ -10,12 +10,12 @@ public class BankTransactionsView {
         BankUtil.createHeader("My transactions");
         for (int i = 0; i < transactions.size(); ++i) {
             BankUtil.createMessage("Account number (" + (i + 1) + ")");
-            System.out.println(transactions.get(i));
+            BankUtil.out().println(transactions.get(i));
         }
     }
 
     public static String askMoreTransactions(){
         BankUtil.createMessage("Want more transactions? y(yes), n(no)");
-        return BankUtil.scanner.nextLine();
+        return BankUtil.scanner().nextLine();
     }
 }
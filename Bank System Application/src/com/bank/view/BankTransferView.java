@@ -4,13 +4,13 @@ import com.bank.model.BankUtil;
 
 public class BankTransferView {
     public static String takeMoney() {
-        System.out.print("Enter money to be transferred: ");
-        return BankUtil.scanner.nextLine();
+        BankUtil.out().print("Enter money to be transferred: ");
+        return BankUtil.scanner().nextLine();
     }
 
     public static String takeOtherAccount() {
-        System.out.print("Enter the ID of the other user bank account(-1 to exit): ");
-        return BankUtil.scanner.nextLine();
+        BankUtil.out().print("Enter the ID of the other user bank account(-1 to exit): ");
+        return BankUtil.scanner().nextLine();
     }
 
     public static void showInvalidAccount() {
@@ -21,6 +21,6 @@ public class BankUserProfileView {
 
     public static String takeChoice() {
         BankUtil.showTakeFunctionNumber();
-        return BankUtil.scanner.nextLine();
+        return BankUtil.scanner().nextLine();
     }
 }
@@ -8,12 +8,12 @@ import java.util.List;
 public class BankViewAccountsView {
     public static String takeChoice() {
         BankUtil.showTakeFunctionNumber();
-        return BankUtil.scanner.nextLine();
+        return BankUtil.scanner().nextLine();
     }
 
     public static String takeAccountNumber() {
-        System.out.print("Enter bank account number from the list to do this function on: ");
-        return BankUtil.scanner.nextLine();
+        BankUtil.out().print("Enter bank account number from the list to do this function on: ");
+        return BankUtil.scanner().nextLine();
     }
 
     public static void showEmptyAccounts() {
@@ -32,6 +32,7 @@ public class BankViewAccountsView {
                 "Transfer",
                 "Show transactions",
                 "Close bank account",
+                "Export transactions",
                 "Exit"
         });
     }
@@ -40,7 +41,7 @@ public class BankViewAccountsView {
         BankUtil.createHeader("My Bank Accounts");
         for (int i = 0; i < userBankAccounts.size(); ++i) {
             BankUtil.createMessage("Account number (" + (i + 1) + ")");
-            System.out.println(userBankAccounts.get(i));
+            BankUtil.out().println(userBankAccounts.get(i));
         }
     }
 }
@@ -8,7 +8,9 @@ USE bank_db;
 CREATE TABLE users
 (
     username VARCHAR(50) NOT NULL PRIMARY KEY,
-    password VARCHAR(50) NOT NULL
+    -- a PBKDF2 hash (see BankPasswordHasher), rows from before the hashing hold the plaintext password until
+    -- their user logs in again
+    password VARCHAR(255) NOT NULL
 );
 
 CREATE TABLE usersInfo
@@ -63,6 +65,19 @@ VALUES ('Dollar', '$'),
        ('Japanese yen', '¥'),
        ('Great British Pound', '£');
 
+-- rate is how much of otherCurrencyID one unit of currencyID buys; a pair without a row can't be converted.
+-- The application keeps the rates in memory and reloads them every minute.
+CREATE TABLE exchangeRates
+(
+    currencyID      INT            NOT NULL,
+    otherCurrencyID INT            NOT NULL,
+    rate            DECIMAL(18, 8) NOT NULL,
+    updatedAt       TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+    PRIMARY KEY (currencyID, otherCurrencyID),
+    FOREIGN KEY (currencyID) REFERENCES currencies (id),
+    FOREIGN KEY (otherCurrencyID) REFERENCES currencies (id)
+);
+
 CREATE TABLE userBankAccount
 (
     id                       INT AUTO_INCREMENT PRIMARY KEY,
@@ -74,13 +89,14 @@ CREATE TABLE userBankAccount
     createdAt                TIMESTAMP            DEFAULT CURRENT_TIMESTAMP,
     withdrawalLimit          INT         NOT NULL,
     lastResetWithdrawalLimit TIMESTAMP   NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    -- sequence of the latest accountLedger entry of the account
+    ledgerSequence           BIGINT      NOT NULL DEFAULT 0,
     updatedAt                TIMESTAMP            DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
     FOREIGN KEY (typeID) REFERENCES bankAccountTypes (id),
     FOREIGN KEY (username) REFERENCES users (username),
     FOREIGN KEY (statusID) REFERENCES status (id),
     FOREIGN KEY (currencyID) REFERENCES currencies (id),
-    INDEX idx_balance (balance),
-    INDEX idx_lastResetWithdrawalLimit (lastResetWithdrawalLimit)
+    INDEX idx_balance (balance)
 );
 
 CREATE TABLE transactionTypes
@@ -92,17 +108,25 @@ CREATE TABLE transactionTypes
 INSERT INTO transactionTypes(name)
 VALUES ('DEPOSIT'),
        ('WITHDRAWAL'),
-       ('TRANSFER');
+       ('TRANSFER'),
+       ('INTEREST');
 
+-- A transfer writes two TRANSFER rows, one per account: the sender's with the negative amount and the
+-- receiver's, under the receiver's username, with the positive one. The account index covers the history
+-- page of an account, so it is a range scan of the index alone.
 CREATE TABLE transactions
 (
-    id        INT AUTO_INCREMENT PRIMARY KEY,
-    username  VARCHAR(50) NOT NULL,
-    amount    INT         NOT NULL,
-    typeID    INT         NOT NULL,
-    createdAt TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    id            INT AUTO_INCREMENT PRIMARY KEY,
+    username      VARCHAR(50) NOT NULL,
+    bankAccountID INT,
+    amount        INT         NOT NULL,
+    typeID        INT         NOT NULL,
+    createdAt     TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
     FOREIGN KEY (username) REFERENCES users (username),
-    FOREIGN KEY (typeID) REFERENCES transactionTypes (id)
+    FOREIGN KEY (bankAccountID) REFERENCES userBankAccount (id),
+    FOREIGN KEY (typeID) REFERENCES transactionTypes (id),
+    INDEX idx_transactions_username_id (username, id),
+    INDEX idx_transactions_bankAccountID_id (bankAccountID, id, username, amount, typeID, createdAt)
 );
 
 CREATE TABLE activityTypes
@@ -131,7 +155,63 @@ CREATE TABLE logs
     activityID INT         NOT NULL,
     createdAt  TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
     FOREIGN KEY (username) REFERENCES users (username),
-    FOREIGN KEY (activityID) REFERENCES activityTypes (id)
+    FOREIGN KEY (activityID) REFERENCES activityTypes (id),
+    INDEX idx_logs_username_id (username, id)
+);
+
+-- Every change of an account's balance, in order and never updated: entry 1 is the opening balance, the
+-- others are the signed amounts the balance changed by. Written by the ledger triggers of userBankAccount.
+CREATE TABLE accountLedger
+(
+    bankAccountID INT    NOT NULL,
+    sequence      BIGINT NOT NULL,
+    amount        INT    NOT NULL,
+    createdAt     TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (bankAccountID, sequence),
+    FOREIGN KEY (bankAccountID) REFERENCES userBankAccount (id)
+);
+
+-- The balance after the opening entry and after every 100th entry of the ledger, so the balance at any time
+-- is a snapshot plus fewer than 100 ledger entries.
+CREATE TABLE accountSnapshots
+(
+    bankAccountID INT    NOT NULL,
+    sequence      BIGINT NOT NULL,
+    balance       INT    NOT NULL,
+    createdAt     TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (bankAccountID, sequence),
+    INDEX idx_accountSnapshots_bankAccountID_createdAt (bankAccountID, createdAt),
+    FOREIGN KEY (bankAccountID) REFERENCES userBankAccount (id)
+);
+
+-- The result of every posting made with an idempotency key, so a retried request gets the original result
+-- instead of being posted twice. request identifies the operation and its arguments.
+CREATE TABLE idempotencyKeys
+(
+    username        VARCHAR(50)  NOT NULL,
+    idempotencyKey  VARCHAR(64)  NOT NULL,
+    request         VARCHAR(100) NOT NULL,
+    status          VARCHAR(30),
+    balance         INT,
+    withdrawalLimit INT,
+    otherBalance    INT,
+    createdAt       TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (username, idempotencyKey),
+    INDEX idx_idempotencyKeys_createdAt (createdAt)
+);
+
+-- One row per chunk of accounts the interest of a month was credited to, written in the same transaction as
+-- the credits, so a run that stopped halfway resumes with the chunks that are missing and never credits an
+-- account twice. period is the month, e.g. 2026-10.
+CREATE TABLE interestCheckpoints
+(
+    period             CHAR(7)   NOT NULL,
+    firstBankAccountID INT       NOT NULL,
+    lastBankAccountID  INT       NOT NULL,
+    accounts           INT       NOT NULL,
+    interest           BIGINT    NOT NULL,
+    createdAt          TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (period, firstBankAccountID, lastBankAccountID)
 );
 
 -- Triggers and Procedures
@@ -145,15 +225,18 @@ BEGIN
     SET NEW.statusID = 3;
 END//
 
-CREATE EVENT reset_withdrawal_limit
+-- the withdrawal limits are reset by the application (BankWithdrawalLimitResetter) in small batches of
+-- primary key ranges instead of an event updating every due row at once
+
+-- clients retry within minutes, a day of keys is plenty
+CREATE EVENT purge_idempotency_keys
     ON SCHEDULE
-        EVERY 1 DAY
+        EVERY 1 HOUR
             STARTS CURRENT_TIMESTAMP
     DO
-    UPDATE userBankAccount
-    SET withdrawalLimit          = (SELECT withdrawalLimit FROM bankAccountTypes WHERE id = typeID),
-        lastResetWithdrawalLimit = CURRENT_TIMESTAMP
-    WHERE lastResetWithdrawalLimit <= DATE_SUB(CURRENT_TIMESTAMP, INTERVAL 30 DAY)//
+    DELETE
+    FROM idempotencyKeys
+    WHERE createdAt < DATE_SUB(CURRENT_TIMESTAMP, INTERVAL 1 DAY)//
 
 CREATE TRIGGER set_default_withdrawalLimit
     BEFORE INSERT
@@ -168,7 +251,8 @@ CREATE TRIGGER decrease_withdrawalLimit
     ON userBankAccount
     FOR EACH ROW
 BEGIN
-    IF (NEW.balance < OLD.balance) THEN
+    -- a statement setting the limit itself (a batch of transfers takes one withdrawal per transfer) is left alone
+    IF (NEW.balance < OLD.balance AND NEW.withdrawalLimit = OLD.withdrawalLimit) THEN
         SET NEW.withdrawalLimit = NEW.withdrawalLimit - 1;
     END IF;
 END//
@@ -178,7 +262,9 @@ CREATE TRIGGER insert_changePassword_log
     ON users
     FOR EACH ROW
 BEGIN
-    INSERT INTO logs(username, activityID) VALUES (NEW.username, 5);
+    IF @rehashingPassword IS NULL THEN
+        INSERT INTO logs(username, activityID) VALUES (NEW.username, 5);
+    END IF;
 END//
 
 CREATE TRIGGER insert_changePersonalInfo_log
@@ -197,6 +283,52 @@ BEGIN
     INSERT INTO logs(username, activityID) VALUES (NEW.username, 7);
 END//
 
+-- Ledger triggers: whatever changes a balance, a posting, a batch or a manual update, appends to the ledger
+CREATE TRIGGER open_account_ledger
+    AFTER INSERT
+    ON userBankAccount
+    FOR EACH ROW
+    FOLLOWS insert_openBankAccount_log
+BEGIN
+    INSERT INTO accountLedger (bankAccountID, sequence, amount) VALUES (NEW.id, 1, NEW.balance);
+    INSERT INTO accountSnapshots (bankAccountID, sequence, balance) VALUES (NEW.id, 1, NEW.balance);
+END//
+
+CREATE TRIGGER set_opening_ledgerSequence
+    BEFORE INSERT
+    ON userBankAccount
+    FOR EACH ROW
+    FOLLOWS set_default_withdrawalLimit
+BEGIN
+    SET NEW.ledgerSequence = 1;
+END//
+
+CREATE TRIGGER advance_ledgerSequence
+    BEFORE UPDATE
+    ON userBankAccount
+    FOR EACH ROW
+    FOLLOWS decrease_withdrawalLimit
+BEGIN
+    IF (NEW.balance <> OLD.balance) THEN
+        SET NEW.ledgerSequence = OLD.ledgerSequence + 1;
+    END IF;
+END//
+
+CREATE TRIGGER append_ledger_entry
+    AFTER UPDATE
+    ON userBankAccount
+    FOR EACH ROW
+BEGIN
+    IF (NEW.ledgerSequence <> OLD.ledgerSequence) THEN
+        INSERT INTO accountLedger (bankAccountID, sequence, amount)
+        VALUES (NEW.id, NEW.ledgerSequence, NEW.balance - OLD.balance);
+        IF (NEW.ledgerSequence % 100 = 0) THEN
+            INSERT INTO accountSnapshots (bankAccountID, sequence, balance)
+            VALUES (NEW.id, NEW.ledgerSequence, NEW.balance);
+        END IF;
+    END IF;
+END//
+
 CREATE TRIGGER insert_closeBankAccount_log
     AFTER UPDATE
     ON userBankAccount
@@ -213,9 +345,10 @@ BEGIN
     INSERT INTO logs (username, activityID) VALUES (p_username, p_activityId);
 END//
 
-CREATE PROCEDURE insertTransaction(p_username VARCHAR(50), p_amount INT, p_typeID INT)
+CREATE PROCEDURE insertTransaction(p_username VARCHAR(50), p_bankAccountID INT, p_amount INT, p_typeID INT)
 BEGIN
-    INSERT INTO transactions (username, amount, typeID) VALUES (p_username, p_amount, p_typeID);
+    INSERT INTO transactions (username, bankAccountID, amount, typeID)
+    VALUES (p_username, p_bankAccountID, p_amount, p_typeID);
 END//
 
 CREATE PROCEDURE updateBankAccountStatus(p_statusID INT, p_id INT)
@@ -233,24 +366,52 @@ BEGIN
     SELECT password FROM Users WHERE username = p_username;
 END//
 
-CREATE PROCEDURE getUserInfo(p_username VARCHAR(50))
+-- the stored password and the profile of a login in one round trip: a primary key lookup joined with one
+-- on the index of the usersInfo foreign key
+CREATE PROCEDURE getUserLogin(p_username VARCHAR(50))
 BEGIN
-    SELECT * FROM usersInfo WHERE username = p_username;
+    SELECT u.password, i.firstName, i.lastName, i.phoneNumber, i.address, i.email
+    FROM users u
+             JOIN usersInfo i ON i.username = u.username
+    WHERE u.username = p_username;
 END//
 
-CREATE PROCEDURE getNumberOfUserLogs(p_username VARCHAR(50))
+-- keyset pagination: pass the id of the last row of the previous page, or NULL for the first page
+CREATE PROCEDURE getUserLogs(p_username VARCHAR(50), p_limit INT, p_beforeId INT)
 BEGIN
-    SELECT COUNT(*) AS numberOfLogs FROM logs WHERE username = p_username;
+    IF p_beforeId IS NULL THEN
+        SELECT id, activityID, createdAt
+        FROM logs
+        WHERE username = p_username
+        ORDER BY id DESC
+        LIMIT p_limit;
+    ELSE
+        SELECT id, activityID, createdAt
+        FROM logs
+        WHERE username = p_username
+          AND id < p_beforeId
+        ORDER BY id DESC
+        LIMIT p_limit;
+    END IF;
 END//
 
-CREATE PROCEDURE getUserLogs(p_username VARCHAR(50), p_limit INT, p_offset INT)
+CREATE PROCEDURE updateUserPassword(p_password VARCHAR(255), p_username VARCHAR(50))
 BEGIN
-    SELECT activityID, createdAt FROM logs WHERE username = p_username ORDER BY id DESC LIMIT p_limit OFFSET p_offset;
+    UPDATE users SET password = p_password WHERE username = p_username;
 END//
 
-CREATE PROCEDURE updateUserPassword(p_password VARCHAR(50), p_username VARCHAR(50))
+-- the same password hashed again (on login, see BankLoginModel.checkPassword), so it isn't logged as a change;
+-- a password changed since it was read is left alone
+CREATE PROCEDURE rehashUserPassword(p_username VARCHAR(50), p_oldPassword VARCHAR(255), p_password VARCHAR(255))
 BEGIN
-    UPDATE users SET password = p_password WHERE username = p_username;
+    DECLARE EXIT HANDLER FOR SQLEXCEPTION
+        BEGIN
+            SET @rehashingPassword = NULL;
+            RESIGNAL;
+        END;
+    SET @rehashingPassword = TRUE;
+    UPDATE users SET password = p_password WHERE username = p_username AND password = p_oldPassword;
+    SET @rehashingPassword = NULL;
 END//
 
 CREATE PROCEDURE updateUserInfo(
@@ -278,7 +439,7 @@ BEGIN
     SELECT NOT EXISTS(SELECT email FROM usersInfo WHERE email = p_email) AS isUniqueEmail;
 END//
 
-CREATE PROCEDURE insertUser(p_username VARCHAR(50), p_password VARCHAR(50))
+CREATE PROCEDURE insertUser(p_username VARCHAR(50), p_password VARCHAR(255))
 BEGIN
     INSERT INTO users (username, password) VALUES (p_username, p_password);
 END//
@@ -290,18 +451,61 @@ BEGIN
     VALUES (p_username, p_firstName, p_lastName, p_phoneNumber, p_address, p_email);
 END//
 
-CREATE PROCEDURE getUserTransactions(p_username VARCHAR(50), p_limit INT, p_offset INT)
+CREATE PROCEDURE getUserTransactions(p_username VARCHAR(50), p_limit INT, p_beforeId INT)
 BEGIN
-    SELECT amount, typeID, createdAt
-    FROM transactions
-    WHERE username = p_username
-    ORDER BY id DESC
-    LIMIT p_limit OFFSET p_offset;
+    IF p_beforeId IS NULL THEN
+        SELECT id, bankAccountID, amount, typeID, createdAt
+        FROM transactions
+        WHERE username = p_username
+        ORDER BY id DESC
+        LIMIT p_limit;
+    ELSE
+        SELECT id, bankAccountID, amount, typeID, createdAt
+        FROM transactions
+        WHERE username = p_username
+          AND id < p_beforeId
+        ORDER BY id DESC
+        LIMIT p_limit;
+    END IF;
 END//
 
-CREATE PROCEDURE getNumberOfUserTransactions(p_username VARCHAR(50))
+CREATE PROCEDURE getAccountTransactions(p_bankAccountID INT, p_limit INT, p_beforeId INT)
 BEGIN
-    SELECT COUNT(*) AS numberOfTransactions FROM transactions WHERE username = p_username;
+    IF p_beforeId IS NULL THEN
+        SELECT id, username, bankAccountID, amount, typeID, createdAt
+        FROM transactions
+        WHERE bankAccountID = p_bankAccountID
+        ORDER BY id DESC
+        LIMIT p_limit;
+    ELSE
+        SELECT id, username, bankAccountID, amount, typeID, createdAt
+        FROM transactions
+        WHERE bankAccountID = p_bankAccountID
+          AND id < p_beforeId
+        ORDER BY id DESC
+        LIMIT p_limit;
+    END IF;
+END//
+
+-- The balance made of the ledger entries written before p_before, NULL if the account didn't exist yet: the
+-- latest snapshot before then plus the entries after it, fewer than 100.
+CREATE PROCEDURE getBalanceBefore(p_id INT, p_before TIMESTAMP)
+BEGIN
+    DECLARE v_sequence BIGINT;
+    DECLARE v_balance INT;
+    SELECT sequence, balance
+    INTO v_sequence, v_balance
+    FROM accountSnapshots
+    WHERE bankAccountID = p_id
+      AND createdAt < p_before
+    ORDER BY createdAt DESC, sequence DESC
+    LIMIT 1;
+    SELECT v_balance + COALESCE(SUM(amount), 0) AS balance
+    FROM accountLedger
+    WHERE bankAccountID = p_id
+      AND sequence > v_sequence
+      AND sequence < v_sequence + 100
+      AND createdAt < p_before;
 END//
 
 CREATE PROCEDURE checkValidBankAccount(p_id INT)
@@ -309,6 +513,13 @@ BEGIN
     SELECT EXISTS(SELECT id FROM userBankAccount WHERE id = p_id AND statusID = 1) AS isValidBankAccount;
 END//
 
+CREATE PROCEDURE getBankAccount(p_id INT)
+BEGIN
+    SELECT id, username, typeID, currencyID, statusID, balance, withdrawalLimit, createdAt
+    FROM userBankAccount
+    WHERE id = p_id;
+END//
+
 CREATE PROCEDURE getUserBankAccounts(p_username VARCHAR(50))
 BEGIN
     SELECT id, typeID, currencyID, statusID, balance, withdrawalLimit, createdAt
@@ -316,4 +527,229 @@ BEGIN
     WHERE username = p_username;
 END//
 
+-- Idempotency keys: the first posting with a key inserts its row, a concurrent retry with the same key waits
+-- on that row until the first one commits and then finds it taken. A null key is always claimed.
+CREATE PROCEDURE claimIdempotencyKey(p_username VARCHAR(50), p_idempotencyKey VARCHAR(64),
+                                     p_request VARCHAR(100), OUT p_claimed BOOLEAN)
+BEGIN
+    DECLARE CONTINUE HANDLER FOR 1062 SET p_claimed = FALSE;
+    SET p_claimed = TRUE;
+    IF p_idempotencyKey IS NOT NULL THEN
+        INSERT INTO idempotencyKeys (username, idempotencyKey, request)
+        VALUES (p_username, p_idempotencyKey, p_request);
+    END IF;
+END//
+
+CREATE PROCEDURE storeIdempotencyKey(p_username VARCHAR(50), p_idempotencyKey VARCHAR(64), p_status VARCHAR(30),
+                                     p_balance INT, p_withdrawalLimit INT, p_otherBalance INT)
+BEGIN
+    IF p_idempotencyKey IS NOT NULL THEN
+        UPDATE idempotencyKeys
+        SET status          = p_status,
+            balance         = p_balance,
+            withdrawalLimit = p_withdrawalLimit,
+            otherBalance    = p_otherBalance
+        WHERE username = p_username
+          AND idempotencyKey = p_idempotencyKey;
+    END IF;
+END//
+
+-- the stored result, or IDEMPOTENCY_KEY_REUSED when the key was used for another operation
+CREATE PROCEDURE replayIdempotencyKey(p_username VARCHAR(50), p_idempotencyKey VARCHAR(64), p_request VARCHAR(100))
+BEGIN
+    SELECT IF(request = p_request, status, 'IDEMPOTENCY_KEY_REUSED') AS status, balance, withdrawalLimit,
+           otherBalance, TRUE AS replayed
+    FROM idempotencyKeys
+    WHERE username = p_username
+      AND idempotencyKey = p_idempotencyKey;
+END//
+
+-- Posting procedures: each one locks the accounts it touches, checks the rules against the locked rows,
+-- moves the money and writes the transactions and logs rows in its own transaction, and answers with
+-- one row (status, balance, withdrawalLimit, otherBalance, replayed). status is 'OK' or the name of the
+-- broken rule. With an idempotency key, a request already posted is answered with its stored result and
+-- replayed set instead of being posted again.
+CREATE PROCEDURE postDeposit(p_id INT, p_username VARCHAR(50), p_amount INT, p_idempotencyKey VARCHAR(64))
+postDeposit:
+BEGIN
+    DECLARE v_request VARCHAR(100) DEFAULT CONCAT_WS(':', 'DEPOSIT', p_id, p_amount);
+    DECLARE v_claimed BOOLEAN;
+    DECLARE v_username VARCHAR(50);
+    DECLARE v_statusID INT;
+    DECLARE v_balance INT;
+    DECLARE v_withdrawalLimit INT;
+    DECLARE v_status VARCHAR(30) DEFAULT 'OK';
+    DECLARE EXIT HANDLER FOR SQLEXCEPTION
+        BEGIN
+            ROLLBACK;
+            RESIGNAL;
+        END;
+
+    START TRANSACTION;
+    CALL claimIdempotencyKey(p_username, p_idempotencyKey, v_request, v_claimed);
+    IF NOT v_claimed THEN
+        COMMIT;
+        CALL replayIdempotencyKey(p_username, p_idempotencyKey, v_request);
+        LEAVE postDeposit;
+    END IF;
+    SELECT username, statusID, balance, withdrawalLimit
+    INTO v_username, v_statusID, v_balance, v_withdrawalLimit
+    FROM userBankAccount
+    WHERE id = p_id
+        FOR UPDATE;
+    IF p_amount <= 0 THEN
+        SET v_status = 'INVALID_AMOUNT';
+    ELSEIF v_username IS NULL OR v_username <> p_username THEN
+        SET v_status = 'ACCOUNT_NOT_FOUND';
+    ELSEIF v_statusID <> 1 THEN
+        SET v_status = 'ACCOUNT_NOT_ACTIVE';
+    ELSE
+        UPDATE userBankAccount SET balance = balance + p_amount WHERE id = p_id;
+        INSERT INTO transactions (username, bankAccountID, amount, typeID)
+        VALUES (p_username, p_id, p_amount, 1);
+        INSERT INTO logs (username, activityID) VALUES (p_username, 9);
+        SET v_balance = v_balance + p_amount;
+    END IF;
+    CALL storeIdempotencyKey(p_username, p_idempotencyKey, v_status, v_balance, v_withdrawalLimit, NULL);
+    COMMIT;
+    SELECT v_status AS status, v_balance AS balance, v_withdrawalLimit AS withdrawalLimit, NULL AS otherBalance,
+           FALSE AS replayed;
+END//
+
+CREATE PROCEDURE postWithdrawal(p_id INT, p_username VARCHAR(50), p_amount INT, p_idempotencyKey VARCHAR(64))
+postWithdrawal:
+BEGIN
+    DECLARE v_request VARCHAR(100) DEFAULT CONCAT_WS(':', 'WITHDRAWAL', p_id, p_amount);
+    DECLARE v_claimed BOOLEAN;
+    DECLARE v_username VARCHAR(50);
+    DECLARE v_statusID INT;
+    DECLARE v_balance INT;
+    DECLARE v_withdrawalLimit INT;
+    DECLARE v_minimumBalance INT;
+    DECLARE v_status VARCHAR(30) DEFAULT 'OK';
+    DECLARE EXIT HANDLER FOR SQLEXCEPTION
+        BEGIN
+            ROLLBACK;
+            RESIGNAL;
+        END;
+
+    START TRANSACTION;
+    CALL claimIdempotencyKey(p_username, p_idempotencyKey, v_request, v_claimed);
+    IF NOT v_claimed THEN
+        COMMIT;
+        CALL replayIdempotencyKey(p_username, p_idempotencyKey, v_request);
+        LEAVE postWithdrawal;
+    END IF;
+    SELECT account.username, account.statusID, account.balance, account.withdrawalLimit, accountType.minimumBalanceInAccount
+    INTO v_username, v_statusID, v_balance, v_withdrawalLimit, v_minimumBalance
+    FROM userBankAccount account
+             JOIN bankAccountTypes accountType ON accountType.id = account.typeID
+    WHERE account.id = p_id
+        FOR UPDATE OF account;
+    IF p_amount <= 0 THEN
+        SET v_status = 'INVALID_AMOUNT';
+    ELSEIF v_username IS NULL OR v_username <> p_username THEN
+        SET v_status = 'ACCOUNT_NOT_FOUND';
+    ELSEIF v_statusID <> 1 THEN
+        SET v_status = 'ACCOUNT_NOT_ACTIVE';
+    ELSEIF v_withdrawalLimit <= 0 THEN
+        SET v_status = 'WITHDRAWAL_LIMIT_REACHED';
+    ELSEIF p_amount > v_balance THEN
+        SET v_status = 'INSUFFICIENT_BALANCE';
+    ELSEIF v_balance - p_amount < v_minimumBalance THEN
+        SET v_status = 'MINIMUM_BALANCE_REACHED';
+    ELSE
+        -- decrease_withdrawalLimit uses one withdrawal
+        UPDATE userBankAccount SET balance = balance - p_amount WHERE id = p_id;
+        INSERT INTO transactions (username, bankAccountID, amount, typeID)
+        VALUES (p_username, p_id, p_amount, 2);
+        INSERT INTO logs (username, activityID) VALUES (p_username, 10);
+        SET v_balance = v_balance - p_amount;
+        SET v_withdrawalLimit = v_withdrawalLimit - 1;
+    END IF;
+    CALL storeIdempotencyKey(p_username, p_idempotencyKey, v_status, v_balance, v_withdrawalLimit, NULL);
+    COMMIT;
+    SELECT v_status AS status, v_balance AS balance, v_withdrawalLimit AS withdrawalLimit, NULL AS otherBalance,
+           FALSE AS replayed;
+END//
+
+CREATE PROCEDURE postTransfer(p_id INT, p_otherId INT, p_username VARCHAR(50), p_amount INT,
+                              p_otherAmount INT, p_idempotencyKey VARCHAR(64))
+postTransfer:
+BEGIN
+    DECLARE v_request VARCHAR(100) DEFAULT CONCAT_WS(':', 'TRANSFER', p_id, p_otherId, p_amount);
+    DECLARE v_claimed BOOLEAN;
+    DECLARE v_locked INT;
+    DECLARE v_username VARCHAR(50);
+    DECLARE v_statusID INT;
+    DECLARE v_balance INT;
+    DECLARE v_withdrawalLimit INT;
+    DECLARE v_minimumBalance INT;
+    DECLARE v_currencyID INT;
+    DECLARE v_otherUsername VARCHAR(50);
+    DECLARE v_otherCurrencyID INT;
+    DECLARE v_otherStatusID INT;
+    DECLARE v_otherBalance INT;
+    DECLARE v_status VARCHAR(30) DEFAULT 'OK';
+    DECLARE EXIT HANDLER FOR SQLEXCEPTION
+        BEGIN
+            ROLLBACK;
+            RESIGNAL;
+        END;
+
+    START TRANSACTION;
+    CALL claimIdempotencyKey(p_username, p_idempotencyKey, v_request, v_claimed);
+    IF NOT v_claimed THEN
+        COMMIT;
+        CALL replayIdempotencyKey(p_username, p_idempotencyKey, v_request);
+        LEAVE postTransfer;
+    END IF;
+    -- the primary key range scan locks both rows in ascending id order, whichever side sends
+    SELECT COUNT(*) INTO v_locked FROM userBankAccount WHERE id IN (p_id, p_otherId) FOR UPDATE;
+    SELECT account.username, account.statusID, account.balance, account.withdrawalLimit, account.currencyID,
+           accountType.minimumBalanceInAccount
+    INTO v_username, v_statusID, v_balance, v_withdrawalLimit, v_currencyID, v_minimumBalance
+    FROM userBankAccount account
+             JOIN bankAccountTypes accountType ON accountType.id = account.typeID
+    WHERE account.id = p_id
+        FOR UPDATE OF account;
+    SELECT username, statusID, balance, currencyID
+    INTO v_otherUsername, v_otherStatusID, v_otherBalance, v_otherCurrencyID
+    FROM userBankAccount
+    WHERE id = p_otherId
+        FOR UPDATE;
+    -- p_otherAmount is p_amount converted by the application to the currency of the other account
+    IF p_amount <= 0 OR p_otherAmount <= 0 OR (v_currencyID = v_otherCurrencyID AND p_otherAmount <> p_amount) THEN
+        SET v_status = 'INVALID_AMOUNT';
+    ELSEIF p_id = p_otherId THEN
+        SET v_status = 'SAME_ACCOUNT';
+    ELSEIF v_username IS NULL OR v_username <> p_username THEN
+        SET v_status = 'ACCOUNT_NOT_FOUND';
+    ELSEIF v_statusID <> 1 THEN
+        SET v_status = 'ACCOUNT_NOT_ACTIVE';
+    ELSEIF v_otherStatusID IS NULL OR v_otherStatusID <> 1 THEN
+        SET v_status = 'OTHER_ACCOUNT_NOT_VALID';
+    ELSEIF v_withdrawalLimit <= 0 THEN
+        SET v_status = 'WITHDRAWAL_LIMIT_REACHED';
+    ELSEIF p_amount > v_balance THEN
+        SET v_status = 'INSUFFICIENT_BALANCE';
+    ELSEIF v_balance - p_amount < v_minimumBalance THEN
+        SET v_status = 'MINIMUM_BALANCE_REACHED';
+    ELSE
+        UPDATE userBankAccount SET balance = balance + p_otherAmount WHERE id = p_otherId;
+        UPDATE userBankAccount SET balance = balance - p_amount WHERE id = p_id;
+        INSERT INTO transactions (username, bankAccountID, amount, typeID)
+        VALUES (p_username, p_id, -p_amount, 3),
+               (v_otherUsername, p_otherId, p_otherAmount, 3);
+        INSERT INTO logs (username, activityID) VALUES (p_username, 11);
+        SET v_balance = v_balance - p_amount;
+        SET v_withdrawalLimit = v_withdrawalLimit - 1;
+        SET v_otherBalance = v_otherBalance + p_otherAmount;
+    END IF;
+    CALL storeIdempotencyKey(p_username, p_idempotencyKey, v_status, v_balance, v_withdrawalLimit, v_otherBalance);
+    COMMIT;
+    SELECT v_status AS status, v_balance AS balance, v_withdrawalLimit AS withdrawalLimit,
+           v_otherBalance AS otherBalance, FALSE AS replayed;
+END//
+
 DELIMITER ;